@@ -0,0 +1,14 @@
+package com.ecommerce.project.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables @Async on the Boot task executor, sized by the spring.task.execution
+ * properties. Used for work that should not hold up the request, such as
+ * generating image variants.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.project.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Catalog caches. Sizes and TTL come from spring.cache.caffeine.spec,
+ * invalidation is done by CatalogCacheEvictor on every catalog write.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+    public static final String PRODUCTS_BY_SELLER = "productsBySeller";
+    public static final String CATEGORIES = "categories";
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.project.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs such as the orphaned image sweeper.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.project.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL full-text and trigram search functions so they can be
+ * used from JPA Specifications. The document expression must stay identical to
+ * the one used by the GIN index, otherwise PostgreSQL will not pick the index.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    public static final String FULL_TEXT_CONFIG = "english";
+
+    private static final String DOCUMENT =
+            "to_tsvector('" + FULL_TEXT_CONFIG + "', coalesce(?1, '') || ' ' || coalesce(?2, ''))";
+
+    private static final String QUERY = "websearch_to_tsquery('" + FULL_TEXT_CONFIG + "', ?3)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        var basicTypeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        // fts_match(productName, description, keyword)
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_match",
+                DOCUMENT + " @@ " + QUERY,
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+
+        // fts_rank(productName, description, keyword)
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_rank",
+                "ts_rank(" + DOCUMENT + ", " + QUERY + ")",
+                basicTypeRegistry.resolve(StandardBasicTypes.DOUBLE));
+
+        // trgm_match(productName, keyword): keyword is close to some word sequence of
+        // the name, above pg_trgm.word_similarity_threshold. Served by the trigram index.
+        functionContributions.getFunctionRegistry().registerPattern(
+                "trgm_match",
+                "(?2 <% ?1)",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+
+        // trgm_similarity(productName, keyword)
+        functionContributions.getFunctionRegistry().registerPattern(
+                "trgm_similarity",
+                "word_similarity(?2, ?1)",
+                basicTypeRegistry.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
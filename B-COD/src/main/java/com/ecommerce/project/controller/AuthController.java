@@ -11,6 +11,8 @@ import com.ecommerce.project.security.request.SignupRequest;
 import com.ecommerce.project.security.response.MessageResponse;
 import com.ecommerce.project.security.response.UserInfoResponse;
 import com.ecommerce.project.security.services.UserDetailsImpl;
+import com.ecommerce.project.service.CartService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
@@ -47,8 +49,11 @@ public class AuthController {
     @Autowired
     PasswordEncoder encoder;
 
+    @Autowired
+    CartService cartService;
+
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         Authentication authentication;
         try {
             authentication = authenticationManager
@@ -68,6 +73,10 @@ public class AuthController {
         User user = userRepository.findById(userDetails.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        // Carry over what was put in the cart before signing in
+        Map<Long, Integer> guestCart = jwtUtils.getGuestCartFromCookies(request);
+        cartService.mergeGuestCart(user, guestCart);
+
 
 
         ResponseCookie jwtCookie = jwtUtils.generateJwtCookie(userDetails);
@@ -94,7 +103,7 @@ public class AuthController {
         );
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, jwtCookie.toString())
+                .header(HttpHeaders.SET_COOKIE, jwtCookie.toString(), jwtUtils.getCleanGuestCartCookie().toString())
                 .body(response);
     }
 
@@ -0,0 +1,24 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.service.CatalogCacheEvictor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class CacheController {
+
+    @Autowired
+    private CatalogCacheEvictor catalogCacheEvictor;
+
+    @GetMapping("/admin/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        return new ResponseEntity<>(catalogCacheEvictor.stats(), HttpStatus.OK);
+    }
+}
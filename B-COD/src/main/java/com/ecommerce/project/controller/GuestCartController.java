@@ -0,0 +1,69 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.security.jwt.JwtUtils;
+import com.ecommerce.project.service.GuestCartService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Cart for visitors who are not signed in, kept entirely in a signed cookie.
+ * It is merged into the user's cart on signin.
+ */
+@RestController
+@RequestMapping("/api")
+public class GuestCartController {
+
+    @Autowired
+    private GuestCartService guestCartService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @GetMapping("/public/guest-cart")
+    public ResponseEntity<CartDTO> getGuestCart(HttpServletRequest request) {
+        Map<Long, Integer> items = jwtUtils.getGuestCartFromCookies(request);
+        return withCookie(HttpStatus.OK, guestCartService.getGuestCart(items), items);
+    }
+
+    @PostMapping("/public/guest-cart/products/{productId}/quantity/{quantity}")
+    public ResponseEntity<CartDTO> addProductToGuestCart(@PathVariable Long productId,
+                                                         @PathVariable Integer quantity,
+                                                         HttpServletRequest request) {
+        Map<Long, Integer> items = jwtUtils.getGuestCartFromCookies(request);
+        return withCookie(HttpStatus.CREATED, guestCartService.addProduct(items, productId, quantity), items);
+    }
+
+    @PutMapping("/public/guest-cart/products/{productId}/quantity/{operation}")
+    public ResponseEntity<CartDTO> updateGuestCartProduct(@PathVariable Long productId,
+                                                          @PathVariable String operation,
+                                                          HttpServletRequest request) {
+        Map<Long, Integer> items = jwtUtils.getGuestCartFromCookies(request);
+        CartDTO cartDTO = guestCartService.updateProductQuantity(items, productId,
+                operation.equalsIgnoreCase("delete") ? -1 : 1);
+        return withCookie(HttpStatus.OK, cartDTO, items);
+    }
+
+    @DeleteMapping("/public/guest-cart/products/{productId}")
+    public ResponseEntity<CartDTO> deleteProductFromGuestCart(@PathVariable Long productId,
+                                                              HttpServletRequest request) {
+        Map<Long, Integer> items = jwtUtils.getGuestCartFromCookies(request);
+        return withCookie(HttpStatus.OK, guestCartService.deleteProduct(items, productId), items);
+    }
+
+    // The cookie is reissued on every response, also to drop products deleted from the catalog
+    private ResponseEntity<CartDTO> withCookie(HttpStatus status, CartDTO cartDTO, Map<Long, Integer> items) {
+        String cookie = items.isEmpty()
+                ? jwtUtils.getCleanGuestCartCookie().toString()
+                : jwtUtils.generateGuestCartCookie(items).toString();
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.SET_COOKIE, cookie)
+                .body(cartDTO);
+    }
+}
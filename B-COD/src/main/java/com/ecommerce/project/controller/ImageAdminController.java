@@ -0,0 +1,40 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.service.ImageByteCache;
+import com.ecommerce.project.service.ImageSweeper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class ImageAdminController {
+
+    @Autowired
+    private ImageSweeper imageSweeper;
+
+    @Autowired
+    private ImageByteCache imageByteCache;
+
+    @GetMapping("/admin/images/sweeper/stats")
+    public ResponseEntity<Map<String, Object>> getSweeperStats() {
+        return new ResponseEntity<>(imageSweeper.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/admin/images/cache/stats")
+    public ResponseEntity<Map<String, Object>> getImageCacheStats() {
+        return new ResponseEntity<>(imageByteCache.stats(), HttpStatus.OK);
+    }
+
+    @PostMapping("/admin/images/sweeper/run")
+    public ResponseEntity<Map<String, Object>> runSweeper() {
+        imageSweeper.sweep();
+        return new ResponseEntity<>(imageSweeper.stats(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,203 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.service.FileService;
+import com.ecommerce.project.service.ImageByteCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves /images. When the connector supports it (Tomcat NIO over plain HTTP)
+ * the file is handed to the connector as a sendfile request, the kernel copies
+ * it to the socket and the worker thread is released right away instead of
+ * being held for the whole transfer. Otherwise the body is written with
+ * FileChannel.transferTo. Small hot files are answered from ImageByteCache
+ * without touching the disk. Single byte ranges, conditional requests and .br/.gz
+ * copies stored next to the file are supported, each encoding with its own ETag.
+ * Names are content digests, so everything is cacheable for a year.
+ */
+@RestController
+public class ImageController {
+    private static final CacheControl IMAGE_CACHE_CONTROL =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ImageByteCache imageByteCache;
+
+    @Value("${project.image}")
+    private String path;
+
+    @GetMapping("/images/{*imagePath}")
+    public void getImage(@PathVariable String imagePath,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path file = fileService.resolveImage(path, imagePath.startsWith("/") ? imagePath.substring(1) : imagePath);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long length = Files.size(file);
+        String etag = "\"" + file.getFileName() + "-" + length + "\"";
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        boolean rangeApplies = rangeHeader != null && (ifRange == null || ifRange.equals(etag));
+        Path encoded = rangeApplies ? null : precompressed(file, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String encoding = encoded == null ? null : encoded.getFileName().toString().endsWith(".br") ? "br" : "gzip";
+        if (encoding != null) {
+            // Each representation gets its own strong ETag, a cache must not answer a gzip request with br bytes
+            etag = etag.substring(0, etag.length() - 1) + (encoding.equals("br") ? "-br" : "-gz") + "\"";
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMAGE_CACHE_CONTROL.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(mediaType.toString());
+
+        if (rangeApplies) {
+            long[] range = parseRange(rangeHeader, length);
+            if (range == null) {
+                // Multiple ranges or a syntax we do not handle, answer with the whole file
+                send(file, 0, length, request, response);
+            } else if (range.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            } else {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + (range[1] - 1) + "/" + length);
+                send(file, range[0], range[1], request, response);
+            }
+            return;
+        }
+
+        if (encoded != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            send(encoded, 0, Files.size(encoded), request, response);
+        } else {
+            send(file, 0, length, request, response);
+        }
+    }
+
+    /**
+     * Picks a precompressed copy the client accepts, preferring brotli. Range
+     * requests always get the identity encoding so offsets refer to the file.
+     */
+    private Path precompressed(Path file, String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        for (String encoding : new String[]{"br", "gzip"}) {
+            if (!acceptEncoding.contains(encoding)) {
+                continue;
+            }
+            Path encoded = file.resolveSibling(file.getFileName() + (encoding.equals("br") ? ".br" : ".gz"));
+            if (Files.isRegularFile(encoded)) {
+                return encoded;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a single "bytes=" range into [start, end). Returns null when the
+     * header should be ignored and an empty array when it cannot be satisfied.
+     */
+    private long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                start = Math.max(0, length - suffix);
+                end = length;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            }
+            return start >= length || start >= end ? new long[0] : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void send(Path file, long start, long end, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(end - start);
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        ByteBuffer cached = imageByteCache.get(file, attributes.size(), attributes.lastModifiedTime().toMillis());
+        if (cached != null) {
+            cached.limit((int) end).position((int) start);
+            OutputStream output = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(output);
+            while (cached.hasRemaining()) {
+                target.write(cached);
+            }
+            output.flush();
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream output = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(output);
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+            output.flush();
+        }
+    }
+}
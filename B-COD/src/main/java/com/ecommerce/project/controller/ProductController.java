@@ -1,25 +1,50 @@
 package com.ecommerce.project.controller;
 
 import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.payload.CountStrategy;
 import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportResponse;
 import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.payload.SuggestionDTO;
+import com.ecommerce.project.service.CatalogVersion;
+import com.ecommerce.project.service.ProductImportService;
 import com.ecommerce.project.service.ProductService;
+import com.ecommerce.project.service.SuggestionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api")
 public class ProductController {
 
+    private static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
     @Autowired
     ProductService productService;
 
+    @Autowired
+    ProductImportService productImportService;
+
+    @Autowired
+    SuggestionService suggestionService;
+
+    @Autowired
+    CatalogVersion catalogVersion;
+
     @PostMapping(value = "/admin/product", consumes = "multipart/form-data")
     public ResponseEntity<ProductDTO> addProduct(
             @RequestPart("productName") String productName,
@@ -28,7 +53,8 @@ public class ProductController {
             @RequestPart("price") double price,
             @RequestPart("discount") double discount,
             @RequestPart("categoryId") Long categoryId,
-            @RequestPart(value = "image", required = false) MultipartFile image
+            @RequestPart(value = "image", required = false) MultipartFile image,
+            @RequestPart(value = "uploadId", required = false) String uploadId
     ) {
         ProductDTO productDTO = new ProductDTO();
         productDTO.setProductName(productName);
@@ -38,10 +64,16 @@ public class ProductController {
         productDTO.setDiscount(discount);
         productDTO.setCategoryId(categoryId);
 
-        ProductDTO savedProduct = productService.addProduct(productDTO, image);
+        ProductDTO savedProduct = productService.addProduct(productDTO, image, uploadId);
         return new ResponseEntity<>(savedProduct, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/admin/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportResponse> importProducts(InputStream body,
+                                                                @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) throws IOException {
+        ProductImportResponse importResponse = productImportService.importProducts(body, contentType);
+        return new ResponseEntity<>(importResponse, HttpStatus.OK);
+    }
 
 
     @GetMapping("/public/products")
@@ -51,10 +83,48 @@ public class ProductController {
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
-            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "count", defaultValue = AppConstants.COUNT_STRATEGY, required = false) String count,
+            @RequestParam(name = "facets", defaultValue = "false", required = false) boolean facets,
+            WebRequest webRequest
     ){
-        ProductResponse productResponse = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category);
-        return new ResponseEntity<>(productResponse,HttpStatus.OK);
+        if (webRequest.checkNotModified(catalogVersion.productsETag(), catalogVersion.productsLastModified())) {
+            return null;
+        }
+        ProductResponse productResponse = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category, after, CountStrategy.from(count), facets);
+        return ResponseEntity.ok().cacheControl(CATALOG_CACHE_CONTROL).body(productResponse);
+    }
+
+    @GetMapping("/public/products/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggestProducts(
+            @RequestParam(name = "prefix") String prefix,
+            @RequestParam(name = "limit", defaultValue = "10", required = false) Integer limit) {
+        List<SuggestionDTO> suggestions = suggestionService.suggest(prefix, Math.min(limit, 50));
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+
+    @GetMapping("/admin/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(name = "categoryId", required = false) Long categoryId,
+            @RequestParam(name = "sellerId", required = false) Long sellerId,
+            @RequestParam(name = "gzip", defaultValue = "false", required = false) boolean gzip) {
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192);
+                productService.exportProducts(categoryId, sellerId, gzipStream);
+                gzipStream.finish();
+            } else {
+                productService.exportProducts(categoryId, sellerId, outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @GetMapping("/public/categories/{categoryId}/products")
@@ -62,9 +132,15 @@ public class ProductController {
                                                                  @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
                                                                  @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
                                                                  @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
-                                                                 @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder){
-        ProductResponse productResponse = productService.searchByCategory(categoryId, pageNumber, pageSize, sortBy, sortOrder);
-        return new ResponseEntity<>(productResponse, HttpStatus.OK);
+                                                                 @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+                                                                 @RequestParam(name = "after", required = false) String after,
+                                                                 @RequestParam(name = "count", defaultValue = AppConstants.COUNT_STRATEGY, required = false) String count,
+                                                                 WebRequest webRequest){
+        if (webRequest.checkNotModified(catalogVersion.productsETag(), catalogVersion.productsLastModified())) {
+            return null;
+        }
+        ProductResponse productResponse = productService.searchByCategory(categoryId, pageNumber, pageSize, sortBy, sortOrder, after, CountStrategy.from(count));
+        return ResponseEntity.ok().cacheControl(CATALOG_CACHE_CONTROL).body(productResponse);
     }
 
     @GetMapping("/public/products/keyword/{keyword}")
@@ -72,9 +148,14 @@ public class ProductController {
                                                                 @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
                                                                 @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
                                                                 @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
-                                                                @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder){
-        ProductResponse productResponse = productService.searchProductByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder);
-        return new ResponseEntity<>(productResponse, HttpStatus.FOUND);
+                                                                @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+                                                                @RequestParam(name = "count", defaultValue = AppConstants.COUNT_STRATEGY, required = false) String count,
+                                                                WebRequest webRequest){
+        if (webRequest.checkNotModified(catalogVersion.productsETag(), catalogVersion.productsLastModified())) {
+            return null;
+        }
+        ProductResponse productResponse = productService.searchProductByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder, CountStrategy.from(count));
+        return ResponseEntity.status(HttpStatus.FOUND).cacheControl(CATALOG_CACHE_CONTROL).body(productResponse);
     }
 
     @PutMapping("/admin/products/{productId}")
@@ -92,8 +173,9 @@ public class ProductController {
 
     @PutMapping("/products/{productId}/image")
     public ResponseEntity<ProductDTO> updateProductImage(@PathVariable Long productId,
-                                                         @RequestParam("image")MultipartFile image) throws IOException {
-        ProductDTO updatedProduct = productService.updateProductImage(productId, image);
+                                                         @RequestParam(value = "image", required = false) MultipartFile image,
+                                                         @RequestParam(value = "uploadId", required = false) String uploadId) throws IOException {
+        ProductDTO updatedProduct = productService.updateProductImage(productId, image, uploadId);
         return new ResponseEntity<>(updatedProduct, HttpStatus.OK);
     }
 
@@ -103,9 +185,11 @@ public class ProductController {
             @RequestParam(value = "pageNumber", defaultValue = "0", required = false) Integer pageNumber,
             @RequestParam(value = "pageSize", defaultValue = "10", required = false) Integer pageSize,
             @RequestParam(value = "sortBy", defaultValue = "price", required = false) String sortBy,
-            @RequestParam(value = "sortOrder", defaultValue = "asc", required = false) String sortOrder) {
+            @RequestParam(value = "sortOrder", defaultValue = "asc", required = false) String sortOrder,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = AppConstants.COUNT_STRATEGY, required = false) String count) {
 
-        ProductResponse response = productService.getProductsBySeller(sellerId, pageNumber, pageSize, sortBy, sortOrder);
+        ProductResponse response = productService.getProductsBySeller(sellerId, pageNumber, pageSize, sortBy, sortOrder, after, CountStrategy.from(count));
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 }
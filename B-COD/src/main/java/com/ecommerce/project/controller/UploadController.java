@@ -0,0 +1,61 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.payload.UploadDTO;
+import com.ecommerce.project.service.ChunkedUploadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Resumable image uploads. Create an upload, PUT the bytes in chunks with
+ * ?offset=, use GET to find the offset to resume from after a failure, then
+ * commit. The upload id can be passed to the product endpoints instead of a
+ * multipart image.
+ */
+@RestController
+@RequestMapping("/api")
+public class UploadController {
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @PostMapping("/admin/uploads")
+    public ResponseEntity<UploadDTO> createUpload(@RequestParam String fileName,
+                                                  @RequestParam long totalSize) throws IOException {
+        return new ResponseEntity<>(chunkedUploadService.createUpload(fileName, totalSize), HttpStatus.CREATED);
+    }
+
+    @PutMapping(value = "/admin/uploads/{uploadId}", consumes = "application/octet-stream")
+    public ResponseEntity<UploadDTO> uploadChunk(@PathVariable String uploadId,
+                                                 @RequestParam long offset,
+                                                 InputStream body) throws IOException {
+        return new ResponseEntity<>(chunkedUploadService.writeChunk(uploadId, offset, body), HttpStatus.OK);
+    }
+
+    @GetMapping("/admin/uploads/{uploadId}")
+    public ResponseEntity<UploadDTO> getUpload(@PathVariable String uploadId) {
+        return new ResponseEntity<>(chunkedUploadService.getUpload(uploadId), HttpStatus.OK);
+    }
+
+    @PostMapping("/admin/uploads/{uploadId}/commit")
+    public ResponseEntity<UploadDTO> commitUpload(@PathVariable String uploadId) throws IOException {
+        return new ResponseEntity<>(chunkedUploadService.commitUpload(uploadId), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/admin/uploads/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) {
+        chunkedUploadService.abortUpload(uploadId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.CartDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CartMapper {
+
+    /**
+     * Maps the cart header only, the product lines are added by the caller
+     * because each one carries the quantity from its cart item.
+     */
+    public CartDTO toDTO(Cart cart) {
+        CartDTO cartDTO = new CartDTO();
+        cartDTO.setCartId(cart.getCartId());
+        cartDTO.setTotalPrice(cart.getTotalPrice());
+        return cartDTO;
+    }
+}
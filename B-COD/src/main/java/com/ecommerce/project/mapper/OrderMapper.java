@@ -0,0 +1,65 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.OrderItem;
+import com.ecommerce.project.model.Payment;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.PaymentDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class OrderMapper {
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    public OrderDTO toDTO(Order order) {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setOrderId(order.getOrderId());
+        orderDTO.setEmail(order.getEmail());
+        orderDTO.setOrderDate(order.getOrderDate());
+        orderDTO.setTotalAmount(order.getTotalAmount());
+        orderDTO.setOrderStatus(order.getOrderStatus());
+
+        List<OrderItemDTO> orderItems = new ArrayList<>();
+        if (order.getOrderItems() != null) {
+            order.getOrderItems().forEach(item -> orderItems.add(toDTO(item)));
+        }
+        orderDTO.setOrderItems(orderItems);
+
+        if (order.getPayment() != null) {
+            orderDTO.setPayment(toDTO(order.getPayment()));
+        }
+        if (order.getAddress() != null) {
+            orderDTO.setAddressId(order.getAddress().getAddressId());
+        }
+        return orderDTO;
+    }
+
+    public OrderItemDTO toDTO(OrderItem orderItem) {
+        OrderItemDTO orderItemDTO = new OrderItemDTO();
+        orderItemDTO.setOrderItemId(orderItem.getOrderItemId());
+        if (orderItem.getProduct() != null) {
+            orderItemDTO.setProduct(productMapper.toDTO(orderItem.getProduct()));
+        }
+        orderItemDTO.setQuantity(orderItem.getQuantity());
+        orderItemDTO.setDiscount(orderItem.getDiscount());
+        orderItemDTO.setOrderedProductPrice(orderItem.getOrderedProductPrice());
+        return orderItemDTO;
+    }
+
+    public PaymentDTO toDTO(Payment payment) {
+        return new PaymentDTO(
+                payment.getPaymentId(),
+                payment.getPaymentMethod(),
+                payment.getPgPaymentId(),
+                payment.getPgStatus(),
+                payment.getPgResponseMessage(),
+                payment.getPgName());
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductMapper {
+
+    /**
+     * Seller fields are left empty, callers that need them fill them in
+     * from the product's user.
+     */
+    public ProductDTO toDTO(Product product) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductId(product.getProductId());
+        productDTO.setProductName(product.getProductName());
+        productDTO.setImage(product.getImage());
+        productDTO.setDescription(product.getDescription());
+        productDTO.setQuantity(product.getQuantity());
+        productDTO.setPrice(product.getPrice());
+        productDTO.setDiscount(product.getDiscount());
+        productDTO.setSpecialPrice(product.getSpecialPrice());
+        if (product.getCategory() != null) {
+            productDTO.setCategoryId(product.getCategory().getCategoryId());
+        }
+        return productDTO;
+    }
+
+    /**
+     * Copies the scalar fields only. Category and seller are resolved and
+     * attached by the service.
+     */
+    public Product toEntity(ProductDTO productDTO) {
+        Product product = new Product();
+        product.setProductId(productDTO.getProductId());
+        product.setProductName(productDTO.getProductName());
+        product.setImage(productDTO.getImage());
+        product.setDescription(productDTO.getDescription());
+        product.setQuantity(productDTO.getQuantity());
+        product.setPrice(productDTO.getPrice());
+        product.setDiscount(productDTO.getDiscount());
+        product.setSpecialPrice(productDTO.getSpecialPrice());
+        return product;
+    }
+}
@@ -26,4 +26,7 @@ public class Cart {
     private List<CartItem> cartItems = new ArrayList<>();
 
     private Double totalPrice = 0.0;
+
+    @Version
+    private Long version;
 }
@@ -12,7 +12,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class CartItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.AUTO)
     private Long cartItemId;
 
     @ManyToOne
@@ -26,4 +26,7 @@ public class CartItem {
     private Integer quantity;
     private double discount;
     private double productPrice;
+
+    @Version
+    private Long version;
 }
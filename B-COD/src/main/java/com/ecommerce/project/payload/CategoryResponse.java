@@ -16,4 +16,5 @@ public class CategoryResponse {
     private Long totalElements;
     private Integer totalPages;
     private boolean lastPage;
+    private boolean approximateTotal;
 }
@@ -0,0 +1,23 @@
+package com.ecommerce.project.payload;
+
+import com.ecommerce.project.exceptions.APIException;
+
+/**
+ * How a paginated listing reports its total size. EXACT runs a COUNT query,
+ * ESTIMATED reads the planner's row estimate and NONE only reports whether
+ * a next page exists.
+ */
+public enum CountStrategy {
+    EXACT,
+    ESTIMATED,
+    NONE;
+
+    public static CountStrategy from(String value) {
+        for (CountStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(value)) {
+                return strategy;
+            }
+        }
+        throw new APIException("Unknown count strategy: " + value + ". Use exact, estimated or none");
+    }
+}
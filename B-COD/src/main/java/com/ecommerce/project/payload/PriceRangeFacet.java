@@ -0,0 +1,16 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceRangeFacet {
+    // Inclusive lower bound, null for the first range
+    private Double from;
+    // Exclusive upper bound, null for the last range
+    private Double to;
+    private long count;
+}
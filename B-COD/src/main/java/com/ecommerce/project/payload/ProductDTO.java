@@ -19,4 +19,23 @@ public class ProductDTO {
     private Long sellerId;
     private String sellerName;
     private Long categoryId;
+    private String thumbnailUrl;
+    private String srcset;
+
+    // Used by the JPQL/criteria projections, image URLs are filled in afterwards
+    public ProductDTO(Long productId, String productName, String image, String description, Integer quantity,
+                      double price, double discount, double specialPrice, Long sellerId, String sellerName,
+                      Long categoryId) {
+        this.productId = productId;
+        this.productName = productName;
+        this.image = image;
+        this.description = description;
+        this.quantity = quantity;
+        this.price = price;
+        this.discount = discount;
+        this.specialPrice = specialPrice;
+        this.sellerId = sellerId;
+        this.sellerName = sellerName;
+        this.categoryId = categoryId;
+    }
 }
@@ -0,0 +1,16 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+    private List<CategoryFacet> categories = new ArrayList<>();
+    private List<PriceRangeFacet> priceRanges = new ArrayList<>();
+}
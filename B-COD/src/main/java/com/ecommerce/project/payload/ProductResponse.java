@@ -16,4 +16,9 @@ public class ProductResponse {
     private Long totalElements;
     private Integer totalPages;
     private boolean lastPage;
+    private boolean approximateTotal;
+    // Set when no exact match was found and the results come from the fuzzy fallback
+    private boolean fuzzy;
+    private String nextCursor;
+    private ProductFacets facets;
 }
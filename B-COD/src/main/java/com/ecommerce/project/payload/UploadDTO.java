@@ -0,0 +1,22 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadDTO {
+    private String uploadId;
+    private String fileName;
+    private long totalSize;
+    // Contiguous bytes stored from offset 0, the offset to resume from
+    private long receivedBytes;
+    private boolean committed;
+    // Stored image name once committed, usable like a multipart upload's result
+    private String imageName;
+    private Instant expiresAt;
+}
@@ -5,15 +5,21 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
     CartItem findCartItemByProductIdAndCartId(Long cartId, Long productId);
 
+    @Query("SELECT ci FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id IN ?2")
+    List<CartItem> findByCartIdAndProductIds(Long cartId, Collection<Long> productIds);
+
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
     void deleteCartItemByProductIdAndCartId(Long cartId, Long productId);
 
     @Modifying
-    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = ?1")
-    void deleteAllByCartId(Long cartId);
+    @Query(value = "UPDATE cart_items SET product_price = ?2, version = version + 1 WHERE product_id = ?1", nativeQuery = true)
+    int updateProductPrice(Long productId, double price);
 }
@@ -2,6 +2,7 @@ package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
@@ -15,4 +16,24 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
     List<Cart> findCartsByProductId(Long productId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalPrice = ?2, c.version = c.version + 1 WHERE c.cartId = ?1")
+    int updateTotalPrice(Long cartId, double totalPrice);
+
+    /**
+     * Moves the total of every cart holding the product by the price difference
+     * summed over its lines of the product, so a cart with more than one such line
+     * is moved once by the whole difference. Must run before the line prices
+     * themselves are updated. Bumps the version so a cart loaded before the
+     * repricing cannot be saved over it.
+     */
+    @Modifying
+    @Query(value = "UPDATE carts c SET total_price = c.total_price + " +
+            "(SELECT SUM((?2 - ci.product_price) * ci.quantity) FROM cart_items ci " +
+            "WHERE ci.cart_id = c.cart_id AND ci.product_id = ?1), " +
+            "version = c.version + 1 " +
+            "WHERE EXISTS (SELECT 1 FROM cart_items ci WHERE ci.cart_id = c.cart_id AND ci.product_id = ?1)",
+            nativeQuery = true)
+    int repriceCartsForProduct(Long productId, double price);
 }
@@ -1,8 +1,16 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Category;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CategoryRepository extends JpaRepository<Category,Long> {
     Category findByCategoryName(String categoryName);
+
+    Slice<Category> findAllBy(Pageable pageable);
+
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE relname = 'categories'", nativeQuery = true)
+    Long estimateRowCount();
 }
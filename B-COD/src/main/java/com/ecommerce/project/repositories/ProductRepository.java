@@ -1,18 +1,43 @@
 package com.ecommerce.project.repositories;
 
-import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.ecommerce.project.payload.ProductDTO;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
-    Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageDetails);
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
+    boolean existsByCategoryCategoryIdAndProductNameIgnoreCase(Long categoryId, String productName);
+
+    @Query("SELECT lower(p.productName) FROM Product p WHERE p.category.categoryId = ?1")
+    List<String> findProductNamesByCategoryId(Long categoryId);
+
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE relname = 'products'", nativeQuery = true)
+    Long estimateRowCount();
 
-    Page<Product> findByProductNameLikeIgnoreCase(String keyword, Pageable pageDetails);
+    /**
+     * Streams the catalog in productId order through a server-side cursor. Must be
+     * consumed inside a transaction, the PostgreSQL driver only honours the fetch
+     * size when autocommit is off.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.image, p.description, " +
+            "p.quantity, p.price, p.discount, p.specialPrice, s.userId, s.userName, c.categoryId) " +
+            "FROM Product p LEFT JOIN p.user s LEFT JOIN p.category c " +
+            "WHERE (?1 IS NULL OR c.categoryId = ?1) AND (?2 IS NULL OR s.userId = ?2) " +
+            "ORDER BY p.productId")
+    Stream<ProductDTO> streamProductDTOs(Long categoryId, Long sellerId);
 
-    Page<Product> findByUserUserId(Long sellerId, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT DISTINCT p.image FROM Product p WHERE p.image IS NOT NULL")
+    Stream<String> streamImageNames();
 }
@@ -0,0 +1,15 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductFacets;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+    List<ProductDTO> findProductDTOs(Specification<Product> spec, Sort sort, long offset, int limit);
+
+    ProductFacets findFacets(Specification<Product> spec, List<Double> priceBounds);
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CategoryFacet;
+import com.ecommerce.project.payload.PriceRangeFacet;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductFacets;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog read path. Rows are projected straight into ProductDTO with the
+ * seller and category joined in the same statement, so listing a page never
+ * loads Product entities or their eager associations. Unlike
+ * findAll(Specification, Pageable) this never issues a COUNT query, callers
+ * decide if and how the total is computed.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductDTO> findProductDTOs(Specification<Product> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDTO> query = criteriaBuilder.createQuery(ProductDTO.class);
+        Root<Product> root = query.from(Product.class);
+        Join<Product, User> seller = root.join("user", JoinType.LEFT);
+        Join<Product, Category> category = root.join("category", JoinType.LEFT);
+
+        query.select(criteriaBuilder.construct(ProductDTO.class,
+                root.get("productId"),
+                root.get("productName"),
+                root.get("image"),
+                root.get("description"),
+                root.get("quantity"),
+                root.get("price"),
+                root.get("discount"),
+                root.get("specialPrice"),
+                seller.get("userId"),
+                seller.get("userName"),
+                category.get("categoryId")));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // Same rule as SimpleJpaRepository: an explicit sort replaces any ordering set by the spec
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Category and price-range counts for everything matching the spec, in one
+     * statement grouped by (category, price bucket). Both facet lists are folded
+     * from the same rows. Bucket bounds are rendered as SQL literals so the CASE
+     * in the select list and in GROUP BY stay textually identical.
+     */
+    @Override
+    public ProductFacets findFacets(Specification<Product> spec, List<Double> priceBounds) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        Join<Product, Category> category = root.join("category", JoinType.LEFT);
+
+        Expression<Double> price = root.get("specialPrice");
+        CriteriaBuilder.Case<Integer> bucketCase = criteriaBuilder.selectCase();
+        for (int i = 0; i < priceBounds.size(); i++) {
+            bucketCase = bucketCase.when(criteriaBuilder.lessThan(price, criteriaBuilder.literal(priceBounds.get(i))),
+                    criteriaBuilder.literal(i));
+        }
+        Expression<Integer> bucket = bucketCase.otherwise(criteriaBuilder.literal(priceBounds.size()));
+
+        Expression<Long> categoryId = category.get("categoryId");
+        Expression<String> categoryName = category.get("categoryName");
+        query.multiselect(categoryId, categoryName, bucket, criteriaBuilder.count(root));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // Drop any ordering the spec added (e.g. relevance), it has no meaning for a grouped query
+        query.orderBy(List.of());
+        query.groupBy(categoryId, categoryName, bucket);
+
+        Map<Long, CategoryFacet> categories = new LinkedHashMap<>();
+        long[] bucketCounts = new long[priceBounds.size() + 1];
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            long count = row.get(3, Long.class);
+            CategoryFacet categoryFacet = categories.computeIfAbsent(row.get(0, Long.class),
+                    id -> new CategoryFacet(id, row.get(1, String.class), 0));
+            categoryFacet.setCount(categoryFacet.getCount() + count);
+            bucketCounts[row.get(2, Integer.class)] += count;
+        }
+
+        ProductFacets facets = new ProductFacets();
+        facets.getCategories().addAll(categories.values());
+        facets.getCategories().sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        for (int i = 0; i < bucketCounts.length; i++) {
+            Double from = i == 0 ? null : priceBounds.get(i - 1);
+            Double to = i == priceBounds.size() ? null : priceBounds.get(i);
+            facets.getPriceRanges().add(new PriceRangeFacet(from, to, bucketCounts[i]));
+        }
+        return facets;
+    }
+}
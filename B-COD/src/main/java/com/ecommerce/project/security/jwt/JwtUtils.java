@@ -2,6 +2,7 @@ package com.ecommerce.project.security.jwt;
 
 import com.ecommerce.project.security.services.UserDetailsImpl;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -16,14 +17,25 @@ import org.springframework.http.ResponseCookie;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String GUEST_CART_ITEMS_CLAIM = "items";
+    // Browsers drop cookies above 4 KB, anything longer was not issued by us
+    private static final int MAX_GUEST_CART_TOKEN_LENGTH = 4096;
+
     @Value("${spring.app.jwtSecret}")
     private String jwtSecret;
 
@@ -33,6 +45,12 @@ public class JwtUtils {
     @Value("${spring.ecom.app.jwtCookieName}")
     private String jwtCookie;
 
+    @Value("${spring.ecom.app.guestCartCookieName}")
+    private String guestCartCookie;
+
+    @Value("${spring.app.guestCartExpirationMs}")
+    private long guestCartExpirationMs;
+
     public String getJwtFromCookies(HttpServletRequest request) {
         Cookie cookie = WebUtils.getCookie(request, jwtCookie);
         if (cookie != null) {
@@ -80,6 +98,73 @@ public class JwtUtils {
         return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
     }
 
+    /**
+     * Guest cart tokens are signed with a key derived from the JWT secret, so a
+     * guest cart can never pass as a login token or the other way round.
+     */
+    private SecretKey guestCartKey() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), "HmacSHA256"));
+            return Keys.hmacShaKeyFor(mac.doFinal("guest-cart".getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * Product id to quantity from the guest cart cookie. A missing, oversized,
+     * expired or tampered cookie reads as an empty cart.
+     */
+    public Map<Long, Integer> getGuestCartFromCookies(HttpServletRequest request) {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        Cookie cookie = WebUtils.getCookie(request, guestCartCookie);
+        if (cookie == null || cookie.getValue() == null || cookie.getValue().length() > MAX_GUEST_CART_TOKEN_LENGTH) {
+            return items;
+        }
+        try {
+            String encoded = Jwts.parser().verifyWith(guestCartKey()).build()
+                    .parseSignedClaims(cookie.getValue())
+                    .getPayload().get(GUEST_CART_ITEMS_CLAIM, String.class);
+            if (encoded != null && !encoded.isEmpty()) {
+                for (String item : encoded.split(",")) {
+                    int colon = item.indexOf(':');
+                    items.put(Long.parseLong(item.substring(0, colon)), Integer.parseInt(item.substring(colon + 1)));
+                }
+            }
+        } catch (JwtException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            logger.debug("Ignoring invalid guest cart cookie: {}", e.getMessage());
+            items.clear();
+        }
+        return items;
+    }
+
+    // Items as "productId:quantity,..." in a single claim, a few bytes per line
+    public ResponseCookie generateGuestCartCookie(Map<Long, Integer> items) {
+        String encoded = items.entrySet().stream()
+                .map(item -> item.getKey() + ":" + item.getValue())
+                .collect(Collectors.joining(","));
+        String token = Jwts.builder()
+                .claim(GUEST_CART_ITEMS_CLAIM, encoded)
+                .issuedAt(new Date())
+                .expiration(new Date((new Date()).getTime() + guestCartExpirationMs))
+                .signWith(guestCartKey())
+                .compact();
+        return ResponseCookie.from(guestCartCookie, token)
+                .path("/api")
+                .maxAge(guestCartExpirationMs / 1000)
+                .httpOnly(true)
+                .secure(false)
+                .build();
+    }
+
+    public ResponseCookie getCleanGuestCartCookie() {
+        return ResponseCookie.from(guestCartCookie, null)
+                .path("/api")
+                .maxAge(0)
+                .build();
+    }
+
     public boolean validateJwtToken(String authToken) {
         try {
             Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
@@ -1,12 +1,12 @@
 package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.AddressMapper;
 import com.ecommerce.project.model.Address;
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.AddressDTO;
 import com.ecommerce.project.repositories.AddressRepository;
 import com.ecommerce.project.repositories.UserRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -18,27 +18,27 @@ public class AddressServiceImpl implements AddressService{
     private AddressRepository addressRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private AddressMapper addressMapper;
 
     @Autowired
     UserRepository userRepository;
 
     @Override
     public AddressDTO createAddress(AddressDTO addressDTO, User user) {
-        Address address = modelMapper.map(addressDTO, Address.class);
+        Address address = addressMapper.toEntity(addressDTO);
         address.setUser(user);
         List<Address> addressesList = user.getAddresses();
         addressesList.add(address);
         user.setAddresses(addressesList);
         Address savedAddress = addressRepository.save(address);
-        return modelMapper.map(savedAddress, AddressDTO.class);
+        return addressMapper.toDTO(savedAddress);
     }
 
     @Override
     public List<AddressDTO> getAddresses() {
         List<Address> addresses = addressRepository.findAll();
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(addressMapper::toDTO)
                 .toList();
     }
 
@@ -46,14 +46,14 @@ public class AddressServiceImpl implements AddressService{
     public AddressDTO getAddressesById(Long addressId) {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address", "addressId", addressId));
-        return modelMapper.map(address, AddressDTO.class);
+        return addressMapper.toDTO(address);
     }
 
     @Override
     public List<AddressDTO> getUserAddresses(User user) {
         List<Address> addresses = user.getAddresses();
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(addressMapper::toDTO)
                 .toList();
     }
 
@@ -76,7 +76,7 @@ public class AddressServiceImpl implements AddressService{
         user.getAddresses().add(updatedAddress);
         userRepository.save(user);
 
-        return modelMapper.map(updatedAddress, AddressDTO.class);
+        return addressMapper.toDTO(updatedAddress);
     }
 
     @Override
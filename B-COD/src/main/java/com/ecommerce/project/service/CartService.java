@@ -1,10 +1,11 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.CartItemDTO;
-import jakarta.transaction.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 public interface CartService {
     CartDTO addProductToCart(Long productId, Integer quantity);
@@ -13,7 +14,6 @@ public interface CartService {
 
     CartDTO getCart(String emailId, Long cartId);
 
-    @Transactional
     CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
 
     String deleteProductFromCart(Long cartId, Long productId);
@@ -21,4 +21,11 @@ public interface CartService {
     void updateProductInCarts(Long cartId, Long productId);
 
     String createOrUpdateCartWithItems(List<CartItemDTO> cartItems);
+
+    // Writes changes held in memory to the stored cart, e.g. before checkout reads it
+    void flushCart(String emailId);
+
+    Map<String, Object> cartStats();
+
+    void mergeGuestCart(User user, Map<Long, Integer> guestItems);
 }
@@ -2,9 +2,12 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CartMapper;
+import com.ecommerce.project.mapper.ProductMapper;
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.model.CartItem;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.CartItemDTO;
 import com.ecommerce.project.payload.ProductDTO;
@@ -12,12 +15,16 @@ import com.ecommerce.project.repositories.CartItemRepository;
 import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.ProductRepository;
 import com.ecommerce.project.util.AuthUtil;
-import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.util.LatencySampler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,10 +43,38 @@ public class CartServiceImpl implements CartService{
     CartItemRepository cartItemRepository;
 
     @Autowired
-    ModelMapper modelMapper;
+    private CartMapper cartMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    // Present when cart.write-behind.enabled=true, clicks are then applied in memory
+    @Autowired(required = false)
+    private WriteBehindCartStore writeBehindCartStore;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    private final LatencySampler mutationLatency = new LatencySampler(10_000);
 
     @Override
     public CartDTO addProductToCart(Long productId, Integer quantity) {
+        long start = System.nanoTime();
+        try {
+            if (writeBehindCartStore == null) {
+                return optimisticRetryExecutor.execute("addProductToCart",
+                        () -> addProductToStoredCart(productId, quantity));
+            }
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+            checkAvailable(product, quantity);
+            return writeBehindCartStore.addProduct(authUtil.principalEmail(), product, quantity);
+        } finally {
+            mutationLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    private CartDTO addProductToStoredCart(Long productId, Integer quantity) {
         Cart cart  = createCart();
 
         Product product = productRepository.findById(productId)
@@ -51,14 +86,7 @@ public class CartServiceImpl implements CartService{
             throw new APIException("Product " + product.getProductName() + " already exists in the cart");
         }
 
-        if (product.getQuantity() == 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
-
-        if (product.getQuantity() < quantity) {
-            throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
-        }
+        checkAvailable(product, quantity);
 
         CartItem newCartItem = new CartItem();
 
@@ -76,12 +104,12 @@ public class CartServiceImpl implements CartService{
 
         cartRepository.save(cart);
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        CartDTO cartDTO = cartMapper.toDTO(cart);
 
         List<CartItem> cartItems = cart.getCartItems();
 
         Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO map = modelMapper.map(item.getProduct(), ProductDTO.class);
+            ProductDTO map = productMapper.toDTO(item.getProduct());
             map.setQuantity(item.getQuantity());
             return map;
         });
@@ -93,6 +121,9 @@ public class CartServiceImpl implements CartService{
 
     @Override
     public List<CartDTO> getAllCarts() {
+        if (writeBehindCartStore != null) {
+            writeBehindCartStore.writeThroughAll();
+        }
         List<Cart> carts = cartRepository.findAll();
 
         if (carts.size() == 0) {
@@ -100,10 +131,10 @@ public class CartServiceImpl implements CartService{
         }
 
         List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+            CartDTO cartDTO = cartMapper.toDTO(cart);
 
             List<ProductDTO> products = cart.getCartItems().stream().map(cartItem -> {
-                ProductDTO productDTO = modelMapper.map(cartItem.getProduct(), ProductDTO.class);
+                ProductDTO productDTO = productMapper.toDTO(cartItem.getProduct());
                 productDTO.setQuantity(cartItem.getQuantity()); // Set the quantity from CartItem
                 return productDTO;
             }).collect(Collectors.toList());
@@ -120,24 +151,44 @@ public class CartServiceImpl implements CartService{
 
     @Override
     public CartDTO getCart(String emailId, Long cartId) {
+        if (writeBehindCartStore != null) {
+            CartDTO resident = writeBehindCartStore.getCart(emailId, cartId);
+            if (resident != null) {
+                return resident;
+            }
+        }
         Cart cart = cartRepository.findCartByEmailAndCartId(emailId, cartId);
         if (cart == null){
             throw new ResourceNotFoundException("Cart", "cartId", cartId);
         }
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        CartDTO cartDTO = cartMapper.toDTO(cart);
         cart.getCartItems().forEach(c ->
                 c.getProduct().setQuantity(c.getQuantity()));
         List<ProductDTO> products = cart.getCartItems().stream()
-                .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class))
+                .map(p -> productMapper.toDTO(p.getProduct()))
                 .toList();
         cartDTO.setProducts(products);
         return cartDTO;
     }
 
-    @Transactional
     @Override
     public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+        long start = System.nanoTime();
+        try {
+            if (writeBehindCartStore == null) {
+                return optimisticRetryExecutor.execute("updateProductQuantityInCart",
+                        () -> updateProductQuantityInStoredCart(productId, quantity));
+            }
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+            checkAvailable(product, quantity);
+            return writeBehindCartStore.updateQuantity(authUtil.principalEmail(), product, quantity);
+        } finally {
+            mutationLatency.record(System.nanoTime() - start);
+        }
+    }
 
+    private CartDTO updateProductQuantityInStoredCart(Long productId, Integer quantity) {
         String emailId = authUtil.loggedInEmail();
         Cart userCart = cartRepository.findCartByEmail(emailId);
         Long cartId  = userCart.getCartId();
@@ -148,14 +199,7 @@ public class CartServiceImpl implements CartService{
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        if (product.getQuantity() == 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
-
-        if (product.getQuantity() < quantity) {
-            throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
-        }
+        checkAvailable(product, quantity);
 
         CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
 
@@ -172,7 +216,7 @@ public class CartServiceImpl implements CartService{
         }
 
         if (newQuantity == 0){
-            deleteProductFromCart(cartId, productId);
+            deleteProductFromStoredCart(cartId, productId);
         } else {
             cartItem.setProductPrice(product.getSpecialPrice());
             cartItem.setQuantity(cartItem.getQuantity() + quantity);
@@ -187,12 +231,12 @@ public class CartServiceImpl implements CartService{
         }
 
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        CartDTO cartDTO = cartMapper.toDTO(cart);
 
         List<CartItem> cartItems = cart.getCartItems();
 
         Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO prd = modelMapper.map(item.getProduct(), ProductDTO.class);
+            ProductDTO prd = productMapper.toDTO(item.getProduct());
             prd.setQuantity(item.getQuantity());
             return prd;
         });
@@ -204,6 +248,17 @@ public class CartServiceImpl implements CartService{
     }
 
 
+    private void checkAvailable(Product product, Integer quantity) {
+        if (product.getQuantity() == 0) {
+            throw new APIException(product.getProductName() + " is not available");
+        }
+
+        if (product.getQuantity() < quantity) {
+            throw new APIException("Please, make an order of the " + product.getProductName()
+                    + " less than or equal to the quantity " + product.getQuantity() + ".");
+        }
+    }
+
     private Cart createCart() {
         Cart userCart  = cartRepository.findCartByEmail(authUtil.loggedInEmail());
         if(userCart != null){
@@ -219,9 +274,21 @@ public class CartServiceImpl implements CartService{
     }
 
 
-    @Transactional
     @Override
     public String deleteProductFromCart(Long cartId, Long productId) {
+        long start = System.nanoTime();
+        try {
+            if (writeBehindCartStore != null) {
+                writeBehindCartStore.writeThroughCart(cartId);
+            }
+            return optimisticRetryExecutor.execute("deleteProductFromCart",
+                    () -> deleteProductFromStoredCart(cartId, productId));
+        } finally {
+            mutationLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    private String deleteProductFromStoredCart(Long cartId, Long productId) {
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
 
@@ -242,6 +309,9 @@ public class CartServiceImpl implements CartService{
 
     @Override
     public void updateProductInCarts(Long cartId, Long productId) {
+        if (writeBehindCartStore != null) {
+            writeBehindCartStore.writeThroughCart(cartId);
+        }
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
 
@@ -265,12 +335,23 @@ public class CartServiceImpl implements CartService{
         cartItem = cartItemRepository.save(cartItem);
     }
 
-    @Transactional
     @Override
     public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
         // Get user's email
         String emailId = authUtil.loggedInEmail();
+        flushCart(emailId);
+        return optimisticRetryExecutor.execute("createOrUpdateCartWithItems",
+                () -> syncCartItems(emailId, cartItems));
+    }
 
+    /**
+     * Brings the stored cart in line with the requested items. All products are
+     * read with one query and only lines that differ are touched: missing ones
+     * are inserted, changed ones updated and the rest deleted, and Hibernate
+     * sends each kind as one JDBC batch (cart item ids come from a pooled
+     * sequence, so inserts can be batched).
+     */
+    private String syncCartItems(String emailId, List<CartItemDTO> cartItems) {
         // Check if an existing cart is available or create a new one
         Cart existingCart = cartRepository.findCartByEmail(emailId);
         if (existingCart == null) {
@@ -278,40 +359,143 @@ public class CartServiceImpl implements CartService{
             existingCart.setTotalPrice(0.00);
             existingCart.setUser(authUtil.loggedInUser());
             existingCart = cartRepository.save(existingCart);
-        } else {
-            // Clear all current items in the existing cart
-            cartItemRepository.deleteAllByCartId(existingCart.getCartId());
         }
 
-        double totalPrice = 0.00;
-
-        // Process each item in the request to add to the cart
+        // Requested quantity per product, repeated products are added up
+        Map<Long, Integer> requested = new LinkedHashMap<>();
         for (CartItemDTO cartItemDTO : cartItems) {
-            Long productId = cartItemDTO.getProductId();
-            Integer quantity = cartItemDTO.getQuantity();
+            requested.merge(cartItemDTO.getProductId(), cartItemDTO.getQuantity(), Integer::sum);
+        }
 
-            // Find the product by ID
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+        Map<Long, Product> products = productRepository.findAllById(requested.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, product -> product));
+        for (Long productId : requested.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+        }
 
-            // Directly update product stock and total price
-            // product.setQuantity(product.getQuantity() - quantity);
+        // Lines no longer requested, and duplicates of a product, are orphans and get deleted
+        Map<Long, CartItem> existingItems = new HashMap<>();
+        Iterator<CartItem> iterator = existingCart.getCartItems().iterator();
+        while (iterator.hasNext()) {
+            CartItem cartItem = iterator.next();
+            Long productId = cartItem.getProduct().getProductId();
+            if (!requested.containsKey(productId) || existingItems.putIfAbsent(productId, cartItem) != null) {
+                iterator.remove();
+            }
+        }
+
+        double totalPrice = 0.00;
+        List<CartItem> newItems = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Product product = products.get(entry.getKey());
+            Integer quantity = entry.getValue();
             totalPrice += product.getSpecialPrice() * quantity;
 
-            // Create and save cart item
-            CartItem cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setCart(existingCart);
+            CartItem cartItem = existingItems.get(entry.getKey());
+            if (cartItem == null) {
+                cartItem = new CartItem();
+                cartItem.setProduct(product);
+                cartItem.setCart(existingCart);
+                existingCart.getCartItems().add(cartItem);
+                newItems.add(cartItem);
+            }
+            // Unchanged values leave the row clean, no update is issued for it
             cartItem.setQuantity(quantity);
             cartItem.setProductPrice(product.getSpecialPrice());
             cartItem.setDiscount(product.getDiscount());
-            cartItemRepository.save(cartItem);
         }
 
-        // Update the cart's total price and save
+        cartItemRepository.saveAll(newItems);
+
+        // The cart is managed, the new total is written at commit with the lines
         existingCart.setTotalPrice(totalPrice);
-        cartRepository.save(existingCart);
         return "Cart created/updated with the new items successfully";
     }
 
+    /**
+     * Adds the guest cart read from the signin request to the user's cart in one
+     * transaction. Quantities of products already in the cart are added up and
+     * capped at the stock, products that are gone or sold out are skipped, so a
+     * stale guest cookie never makes the signin fail.
+     */
+    @Override
+    public void mergeGuestCart(User user, Map<Long, Integer> guestItems) {
+        if (guestItems.isEmpty()) {
+            return;
+        }
+        flushCart(user.getEmail());
+        optimisticRetryExecutor.execute("mergeGuestCart", () -> {
+            mergeItems(user, guestItems);
+            return null;
+        });
+    }
+
+    private void mergeItems(User user, Map<Long, Integer> guestItems) {
+        Cart cart = cartRepository.findCartByEmail(user.getEmail());
+        if (cart == null) {
+            cart = new Cart();
+            cart.setTotalPrice(0.00);
+            cart.setUser(user);
+            cart = cartRepository.save(cart);
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(guestItems.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, product -> product));
+        Map<Long, CartItem> existingItems = new HashMap<>();
+        cart.getCartItems().forEach(cartItem -> existingItems.putIfAbsent(cartItem.getProduct().getProductId(), cartItem));
+
+        double totalPrice = cart.getTotalPrice();
+        List<CartItem> newItems = new ArrayList<>();
+        for (Map.Entry<Long, Integer> guestItem : guestItems.entrySet()) {
+            Product product = products.get(guestItem.getKey());
+            // Deleted or without stock (also a product created without a quantity), nothing to merge
+            if (product == null || product.getQuantity() == null || product.getQuantity() <= 0
+                    || guestItem.getValue() <= 0) {
+                continue;
+            }
+            CartItem cartItem = existingItems.get(guestItem.getKey());
+            int currentQuantity = cartItem != null ? cartItem.getQuantity() : 0;
+            double oldPrice = cartItem != null ? cartItem.getProductPrice() : 0;
+            int quantity = Math.min(currentQuantity + guestItem.getValue(), product.getQuantity());
+            if (quantity <= currentQuantity) {
+                continue;
+            }
+            if (cartItem == null) {
+                cartItem = new CartItem();
+                cartItem.setProduct(product);
+                cartItem.setCart(cart);
+                cart.getCartItems().add(cartItem);
+                newItems.add(cartItem);
+            }
+            cartItem.setQuantity(quantity);
+            cartItem.setProductPrice(product.getSpecialPrice());
+            cartItem.setDiscount(product.getDiscount());
+            // The whole line moves to the current price, not just the added units
+            totalPrice += product.getSpecialPrice() * quantity - oldPrice * currentQuantity;
+        }
+
+        cartItemRepository.saveAll(newItems);
+        cart.setTotalPrice(totalPrice);
+    }
+
+    @Override
+    public void flushCart(String emailId) {
+        if (writeBehindCartStore != null) {
+            writeBehindCartStore.writeThrough(emailId);
+        }
+    }
+
+    @Override
+    public Map<String, Object> cartStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", writeBehindCartStore != null ? "write-behind" : "write-through");
+        stats.put("mutationLatency", mutationLatency.snapshot());
+        stats.put("optimisticRetries", optimisticRetryExecutor.stats());
+        if (writeBehindCartStore != null) {
+            stats.put("store", writeBehindCartStore.stats());
+        }
+        return stats;
+    }
 }
@@ -0,0 +1,88 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.config.CacheConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invalidates only the cached listings a write can affect. Category and seller
+ * listings are keyed by a list whose first element is the category or seller
+ * id, so a write drops the pages of that one category or seller and leaves the
+ * others warm. The HTTP validators in CatalogVersion are bumped at the same
+ * points so conditional GETs never outlive the cached data.
+ */
+@Component
+public class CatalogCacheEvictor {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    public void productChanged(Long categoryId, Long sellerId) {
+        catalogVersion.productsChanged();
+        clear(CacheConfig.PRODUCTS);
+        evictByOwner(CacheConfig.PRODUCTS_BY_CATEGORY, categoryId);
+        evictByOwner(CacheConfig.PRODUCTS_BY_SELLER, sellerId);
+    }
+
+    public void categoryChanged(Long categoryId) {
+        catalogVersion.categoriesChanged();
+        clear(CacheConfig.CATEGORIES);
+        // getAllProducts filters on the category name
+        clear(CacheConfig.PRODUCTS);
+        evictByOwner(CacheConfig.PRODUCTS_BY_CATEGORY, categoryId);
+    }
+
+    public void categoryDeleted(Long categoryId) {
+        categoryChanged(categoryId);
+        // Products of the category are removed with it, for any seller
+        catalogVersion.productsChanged();
+        clear(CacheConfig.PRODUCTS_BY_SELLER);
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                var cacheStats = nativeCache.stats();
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("size", nativeCache.estimatedSize());
+                values.put("hitCount", cacheStats.hitCount());
+                values.put("missCount", cacheStats.missCount());
+                values.put("hitRate", cacheStats.hitRate());
+                values.put("evictionCount", cacheStats.evictionCount());
+                stats.put(cacheName, values);
+            }
+        }
+        return stats;
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void evictByOwner(String cacheName, Long ownerId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || ownerId == null) {
+            return;
+        }
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            nativeCache.asMap().keySet().removeIf(key ->
+                    key instanceof List<?> parts && !parts.isEmpty() && ownerId.equals(parts.get(0)));
+        } else {
+            cache.clear();
+        }
+    }
+}
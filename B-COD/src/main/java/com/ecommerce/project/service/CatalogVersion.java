@@ -0,0 +1,52 @@
+package com.ecommerce.project.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modification counters for the catalog tables, used as HTTP validators.
+ * The counters live in memory, so the ETag also carries the boot time to
+ * never repeat a tag across restarts. With several instances each one
+ * validates against its own counters.
+ */
+@Component
+public class CatalogVersion {
+    private final long bootTime = System.currentTimeMillis();
+
+    private final AtomicLong productVersion = new AtomicLong();
+    private final AtomicLong categoryVersion = new AtomicLong();
+
+    private volatile long productsLastModified = bootTime;
+    private volatile long categoriesLastModified = bootTime;
+
+    public void productsChanged() {
+        productVersion.incrementAndGet();
+        productsLastModified = System.currentTimeMillis();
+    }
+
+    public void categoriesChanged() {
+        categoryVersion.incrementAndGet();
+        categoriesLastModified = System.currentTimeMillis();
+    }
+
+    /**
+     * Product responses also depend on categories (filter by category name),
+     * so their tag covers both counters.
+     */
+    public String productsETag() {
+        return "\"p-" + bootTime + "-" + productVersion.get() + "-" + categoryVersion.get() + "\"";
+    }
+
+    public long productsLastModified() {
+        return Math.max(productsLastModified, categoriesLastModified);
+    }
+
+    public String categoriesETag() {
+        return "\"c-" + bootTime + "-" + categoryVersion.get() + "\"";
+    }
+
+    public long categoriesLastModified() {
+        return categoriesLastModified;
+    }
+}
@@ -1,16 +1,20 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.config.CacheConfig;
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CategoryMapper;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.payload.CategoryDTO;
 import com.ecommerce.project.payload.CategoryResponse;
+import com.ecommerce.project.payload.CountStrategy;
 import com.ecommerce.project.repositories.CategoryRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
@@ -23,43 +27,70 @@ public class CategoryServiceImpl implements CategoryService{
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private CatalogCacheEvictor catalogCacheEvictor;
+
+    @Autowired
+    private SuggestionService suggestionService;
 
     @Override
-    public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+    @Cacheable(value = CacheConfig.CATEGORIES,
+            key = "{#pageNumber, #pageSize, #sortBy, #sortOrder, #countStrategy}")
+    public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, CountStrategy countStrategy) {
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Category> categoryPage = categoryRepository.findAll(pageDetails);
+        Slice<Category> categorySlice = countStrategy == CountStrategy.EXACT
+                ? categoryRepository.findAll(pageDetails)
+                : categoryRepository.findAllBy(pageDetails);
 
-        List<Category> categories = categoryPage.getContent();
+        List<Category> categories = categorySlice.getContent();
         if (categories.isEmpty())
             throw new APIException("No category created till now.");
 
         List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .map(categoryMapper::toDTO)
                 .toList();
 
         CategoryResponse categoryResponse = new CategoryResponse();
         categoryResponse.setContent(categoryDTOS);
-        categoryResponse.setPageNumber(categoryPage.getNumber());
-        categoryResponse.setPageSize(categoryPage.getSize());
-        categoryResponse.setTotalElements(categoryPage.getTotalElements());
-        categoryResponse.setTotalPages(categoryPage.getTotalPages());
-        categoryResponse.setLastPage(categoryPage.isLast());
+        categoryResponse.setPageNumber(categorySlice.getNumber());
+        categoryResponse.setPageSize(categorySlice.getSize());
+        categoryResponse.setLastPage(categorySlice.isLast());
+
+        if (categorySlice instanceof Page<Category> categoryPage) {
+            categoryResponse.setTotalElements(categoryPage.getTotalElements());
+            categoryResponse.setTotalPages(categoryPage.getTotalPages());
+        } else if (categorySlice.isLast()) {
+            long totalElements = pageDetails.getOffset() + categories.size();
+            categoryResponse.setTotalElements(totalElements);
+            categoryResponse.setTotalPages((int) Math.ceil((double) totalElements / pageSize));
+        } else if (countStrategy == CountStrategy.ESTIMATED) {
+            Long estimate = categoryRepository.estimateRowCount();
+            long totalElements = estimate == null || estimate < 0
+                    ? categoryRepository.count()
+                    : Math.max(estimate, pageDetails.getOffset() + pageSize + 1);
+            categoryResponse.setApproximateTotal(estimate != null && estimate >= 0);
+            categoryResponse.setTotalElements(totalElements);
+            categoryResponse.setTotalPages((int) Math.ceil((double) totalElements / pageSize));
+        }
         return categoryResponse;
     }
 
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
         Category categoryFromDb = categoryRepository.findByCategoryName(category.getCategoryName());
         if (categoryFromDb != null)
             throw new APIException("Category with the name " + category.getCategoryName() + " already exists !!!");
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        catalogCacheEvictor.categoryChanged(savedCategory.getCategoryId());
+        suggestionService.categorySaved(savedCategory);
+        return categoryMapper.toDTO(savedCategory);
     }
 
     @Override
@@ -68,7 +99,9 @@ public class CategoryServiceImpl implements CategoryService{
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
         categoryRepository.delete(category);
-        return modelMapper.map(category, CategoryDTO.class);
+        catalogCacheEvictor.categoryDeleted(categoryId);
+        suggestionService.categoryDeleted(categoryId);
+        return categoryMapper.toDTO(category);
     }
 
     @Override
@@ -76,9 +109,11 @@ public class CategoryServiceImpl implements CategoryService{
         Category savedCategory = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
         category.setCategoryId(categoryId);
         savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        catalogCacheEvictor.categoryChanged(categoryId);
+        suggestionService.categorySaved(savedCategory);
+        return categoryMapper.toDTO(savedCategory);
     }
 }
@@ -0,0 +1,18 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.UploadDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ChunkedUploadService {
+    UploadDTO createUpload(String fileName, long totalSize) throws IOException;
+
+    UploadDTO writeChunk(String uploadId, long offset, InputStream content) throws IOException;
+
+    UploadDTO getUpload(String uploadId);
+
+    UploadDTO commitUpload(String uploadId) throws IOException;
+
+    void abortUpload(String uploadId);
+}
@@ -0,0 +1,240 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.payload.UploadDTO;
+import com.ecommerce.project.util.AuthUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Resumable uploads: the client creates an upload with the final size, PUTs
+ * chunks at byte offsets and commits once everything has arrived. Chunks are
+ * written into a preallocated temp file with positional writes, so a retried or
+ * parallel chunk simply overwrites its own range. A chunk may start anywhere up
+ * to the bytes received so far, and what arrived before a broken connection is
+ * kept, which is what makes resuming cheap on a flaky network.
+ * Upload state is kept in memory only. After a restart clients start over, and
+ * the leftover temp files are removed by the cleanup job.
+ */
+@Service
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private AuthUtil authUtil;
+
+    @Value("${project.image}")
+    private String path;
+
+    @Value("${uploads.temp-dir}")
+    private String tempDir;
+
+    @Value("${uploads.max-size}")
+    private DataSize maxSize;
+
+    @Value("${uploads.expire-after}")
+    private Duration expireAfter;
+
+    @Override
+    public UploadDTO createUpload(String fileName, long totalSize) throws IOException {
+        if (totalSize <= 0 || totalSize > maxSize.toBytes()) {
+            throw new APIException("Upload size must be between 1 and " + maxSize.toBytes() + " bytes");
+        }
+        Path folder = Paths.get(tempDir);
+        Files.createDirectories(folder);
+
+        String uploadId = UUID.randomUUID().toString();
+        Path temp = folder.resolve(uploadId + ".part");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            // Reserve the full length up front, the file stays sparse until written
+            channel.write(ByteBuffer.allocate(1), totalSize - 1);
+        }
+
+        Upload upload = new Upload(uploadId, authUtil.loggedInUserName(), fileName, totalSize, temp);
+        uploads.put(uploadId, upload);
+        return toDTO(upload);
+    }
+
+    @Override
+    public UploadDTO writeChunk(String uploadId, long offset, InputStream content) throws IOException {
+        Upload upload = ownedUpload(uploadId);
+        synchronized (upload) {
+            if (upload.committed) {
+                throw new APIException("Upload " + uploadId + " is already committed");
+            }
+            if (offset < 0 || offset > upload.received) {
+                throw new APIException("Chunk offset " + offset + " is past the " + upload.received + " bytes received");
+            }
+        }
+
+        long position = offset;
+        try (FileChannel channel = FileChannel.open(upload.temp, StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(content)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                if (position + buffer.remaining() > upload.totalSize) {
+                    throw new APIException("Chunk runs past the declared size of " + upload.totalSize + " bytes");
+                }
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                buffer.clear();
+            }
+        } finally {
+            // Keep whatever arrived, also when the connection broke mid chunk
+            upload.advance(position);
+        }
+        return toDTO(upload);
+    }
+
+    @Override
+    public UploadDTO getUpload(String uploadId) {
+        return toDTO(ownedUpload(uploadId));
+    }
+
+    /**
+     * Hands the assembled file to FileService. Committing again returns the same
+     * image name, so a product can refer to an upload that is already committed.
+     */
+    @Override
+    public UploadDTO commitUpload(String uploadId) throws IOException {
+        Upload upload = ownedUpload(uploadId);
+        synchronized (upload) {
+            if (!upload.committed) {
+                if (upload.received < upload.totalSize) {
+                    throw new APIException("Upload " + uploadId + " is incomplete, "
+                            + upload.received + " of " + upload.totalSize + " bytes received");
+                }
+                upload.imageName = fileService.uploadImage(path, upload.temp, upload.fileName);
+                upload.committed = true;
+                Files.deleteIfExists(upload.temp);
+            }
+            upload.touch();
+        }
+        return toDTO(upload);
+    }
+
+    @Override
+    public void abortUpload(String uploadId) {
+        Upload upload = ownedUpload(uploadId);
+        uploads.remove(uploadId);
+        deleteQuietly(upload.temp);
+    }
+
+    /**
+     * Drops uploads that have been idle for longer than uploads.expire-after,
+     * and temp files no live upload owns, e.g. from before a restart.
+     */
+    @Scheduled(fixedDelayString = "${uploads.cleanup-interval}")
+    public void removeExpired() {
+        Instant cutoff = Instant.now().minus(expireAfter);
+        uploads.values().removeIf(upload -> {
+            if (upload.lastActivity.isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(upload.temp);
+            return true;
+        });
+
+        Path folder = Paths.get(tempDir);
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            files.filter(file -> !uploads.containsKey(file.getFileName().toString().replace(".part", "")))
+                    .filter(file -> {
+                        try {
+                            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            logger.warn("Could not clean up {}: {}", folder, e.getMessage());
+        }
+    }
+
+    private Upload ownedUpload(String uploadId) {
+        Upload upload = uploads.get(uploadId);
+        if (upload == null || !upload.owner.equals(authUtil.loggedInUserName())) {
+            throw new ResourceNotFoundException("Upload", "uploadId", uploadId);
+        }
+        return upload;
+    }
+
+    private UploadDTO toDTO(Upload upload) {
+        synchronized (upload) {
+            return new UploadDTO(upload.id, upload.fileName, upload.totalSize, upload.received,
+                    upload.committed, upload.imageName, upload.lastActivity.plus(expireAfter));
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete upload file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Upload {
+        private final String id;
+        private final String owner;
+        private final String fileName;
+        private final long totalSize;
+        private final Path temp;
+        private long received;
+        private boolean committed;
+        private String imageName;
+        private volatile Instant lastActivity = Instant.now();
+
+        private Upload(String id, String owner, String fileName, long totalSize, Path temp) {
+            this.id = id;
+            this.owner = owner;
+            this.fileName = fileName;
+            this.totalSize = totalSize;
+            this.temp = temp;
+        }
+
+        private synchronized void advance(long position) {
+            received = Math.max(received, position);
+            touch();
+        }
+
+        private void touch() {
+            lastActivity = Instant.now();
+        }
+    }
+}
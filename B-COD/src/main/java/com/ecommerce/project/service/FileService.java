@@ -3,7 +3,12 @@ package com.ecommerce.project.service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 public interface FileService {
     String uploadImage(String path, MultipartFile file) throws IOException;
+
+    String uploadImage(String path, Path file, String originalFileName) throws IOException;
+
+    Path resolveImage(String path, String imageName);
 }
@@ -1,29 +1,179 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.util.ImageLayout;
+import com.ecommerce.project.util.ImageVariant;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Images are stored under the SHA-256 of their content, so the same photo
+ * uploaded twice is stored once and a name always refers to the same bytes,
+ * which is what allows /images to be cached as immutable. The digest is
+ * computed while the upload is copied to a temp file in the same directory,
+ * the temp file is then moved to its final name or dropped if that name
+ * already exists.
+ */
 @Service
 public class FileServiceImpl implements FileService {
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,5}");
+    // Formats that shrink under gzip, a .gz copy is stored next to them for ImageController
+    private static final Set<String> COMPRESSIBLE = Set.of(".svg", ".bmp");
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageByteCache imageByteCache;
 
     @Override
     public String uploadImage(String path, MultipartFile file) throws IOException {
-        String originalFileName = file.getOriginalFilename();
-        String randomId = UUID.randomUUID().toString();
-        String fileName = randomId.concat(originalFileName.substring(originalFileName.lastIndexOf('.')));
-        String filePath = path + File.separator + fileName;
+        try (InputStream input = file.getInputStream()) {
+            return store(path, input, file.getOriginalFilename());
+        }
+    }
+
+    /**
+     * Stores a file assembled elsewhere, e.g. by ChunkedUploadService. The source
+     * is copied, not moved, since it may live on another file system.
+     */
+    @Override
+    public String uploadImage(String path, Path file, String originalFileName) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return store(path, input, originalFileName);
+        }
+    }
+
+    private String store(String path, InputStream content, String originalFileName) throws IOException {
+        Path folder = Paths.get(path);
+        Files.createDirectories(folder);
+
+        Path temp = Files.createTempFile(folder, ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream input = new DigestInputStream(content, digest)) {
+                Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String fileName = HexFormat.of().formatHex(digest.digest()) + extension(originalFileName);
+            Path existing = locate(folder.toAbsolutePath().normalize(), fileName);
+            if (existing != null) {
+                // Same content already stored, reuse it. Touch it so the orphan
+                // sweeper's grace period starts over for the new reference.
+                Files.setLastModifiedTime(existing, FileTime.from(Instant.now()));
+                imageByteCache.invalidate(existing);
+                return fileName;
+            }
+            Path target = folder.resolve(ImageLayout.relativePath(fileName));
+            Files.createDirectories(target.getParent());
+            if (Files.exists(target)) {
+                // Stored concurrently by another upload of the same content. An atomic
+                // move replaces an existing file on POSIX instead of failing, so check first
+                return fileName;
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            imageByteCache.invalidate(target);
+            if (COMPRESSIBLE.contains(extension(fileName))) {
+                precompress(target);
+            }
+            imageVariantService.generateVariants(target.toAbsolutePath());
+            return fileName;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 
-        File folder = new File(path);
-        if (!folder.exists())
-            folder.mkdir();
+    /**
+     * Maps a requested image path to the file to serve, or null if there is none.
+     * Only the last path segment is used, the directory is derived from the name
+     * by ImageLayout, with the flat legacy location as a fallback. A variant that
+     * does not exist yet is generated on the spot, see ImageVariant for why the
+     * original is only returned when it cannot be decoded.
+     */
+    @Override
+    public Path resolveImage(String path, String imagePath) {
+        Path root = Paths.get(path).toAbsolutePath().normalize();
+        String imageName = imagePath.substring(imagePath.lastIndexOf('/') + 1);
+        if (imageName.isEmpty() || imageName.startsWith(".")) {
+            return null;
+        }
+        Path file = locate(root, imageName);
+        if (file != null) {
+            return file;
+        }
+
+        ImageVariant variant = ImageVariant.of(imageName);
+        if (variant == null) {
+            return null;
+        }
+        for (String candidate : variant.originalCandidates(imageName)) {
+            Path original = locate(root, candidate);
+            if (original != null) {
+                Path generated = imageVariantService.generateVariant(original, variant);
+                return generated != null ? generated : original;
+            }
+        }
+        return null;
+    }
+
+    private Path locate(Path root, String imageName) {
+        Path sharded = root.resolve(ImageLayout.relativePath(imageName)).normalize();
+        if (sharded.startsWith(root) && Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        // Flat layout used before sharding, until ImageLayoutMigration has moved the file
+        Path flat = root.resolve(imageName).normalize();
+        if (flat.startsWith(root) && Files.isRegularFile(flat)) {
+            return flat;
+        }
+        return null;
+    }
+
+    private void precompress(Path file) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), ".gzip-", ".tmp");
+        try {
+            try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                Files.copy(file, output);
+            }
+            Path compressed = file.resolveSibling(file.getFileName() + ".gz");
+            Files.move(temp, compressed, StandardCopyOption.ATOMIC_MOVE);
+            imageByteCache.invalidate(compressed);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private String extension(String originalFileName) {
+        if (originalFileName == null || originalFileName.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String extension = originalFileName.substring(originalFileName.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
 
-        Files.copy(file.getInputStream(), Paths.get(filePath));
-        return fileName;
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
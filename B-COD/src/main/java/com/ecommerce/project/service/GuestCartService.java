@@ -0,0 +1,20 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.CartDTO;
+
+import java.util.Map;
+
+/**
+ * Carts of visitors who are not signed in. The items live in a signed cookie
+ * (see JwtUtils), these methods validate and apply a change to the decoded
+ * product id to quantity map in place and return the cart to show.
+ */
+public interface GuestCartService {
+    CartDTO getGuestCart(Map<Long, Integer> items);
+
+    CartDTO addProduct(Map<Long, Integer> items, Long productId, Integer quantity);
+
+    CartDTO updateProductQuantity(Map<Long, Integer> items, Long productId, Integer quantity);
+
+    CartDTO deleteProduct(Map<Long, Integer> items, Long productId);
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.ProductMapper;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only against the database: a guest cart costs one product query per
+ * request and never a write. Prices are always the current ones, the cookie
+ * only carries product ids and quantities.
+ */
+@Service
+public class GuestCartServiceImpl implements GuestCartService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    // Keeps the signed cookie well below the 4 KB browsers accept
+    @Value("${guest-cart.max-items}")
+    private int maxItems;
+
+    @Override
+    public CartDTO getGuestCart(Map<Long, Integer> items) {
+        return toDTO(items, loadProducts(items));
+    }
+
+    @Override
+    public CartDTO addProduct(Map<Long, Integer> items, Long productId, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new APIException("Quantity must be greater than zero");
+        }
+        Map<Long, Product> products = loadProducts(items, productId);
+        Product product = products.get(productId);
+
+        if (items.containsKey(productId)) {
+            throw new APIException("Product " + product.getProductName() + " already exists in the cart");
+        }
+        if (items.size() >= maxItems) {
+            throw new APIException("A guest cart holds at most " + maxItems + " products, please sign in to add more");
+        }
+        checkAvailable(product, quantity);
+
+        items.put(productId, quantity);
+        return toDTO(items, products);
+    }
+
+    @Override
+    public CartDTO updateProductQuantity(Map<Long, Integer> items, Long productId, Integer quantity) {
+        Map<Long, Product> products = loadProducts(items, productId);
+        Product product = products.get(productId);
+
+        Integer currentQuantity = items.get(productId);
+        if (currentQuantity == null) {
+            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+        }
+        int newQuantity = currentQuantity + quantity;
+        if (newQuantity < 0) {
+            throw new APIException("The resulting quantity cannot be negative.");
+        }
+        if (newQuantity == 0) {
+            items.remove(productId);
+        } else {
+            checkAvailable(product, newQuantity);
+            items.put(productId, newQuantity);
+        }
+        return toDTO(items, products);
+    }
+
+    @Override
+    public CartDTO deleteProduct(Map<Long, Integer> items, Long productId) {
+        if (items.remove(productId) == null) {
+            throw new ResourceNotFoundException("Product", "productId", productId);
+        }
+        return toDTO(items, loadProducts(items));
+    }
+
+    /**
+     * Products of the cart plus the one being changed, in one query. The changed
+     * product must exist, cart products deleted since are dropped from the cart.
+     */
+    private Map<Long, Product> loadProducts(Map<Long, Integer> items, Long productId) {
+        List<Long> ids = new ArrayList<>(items.keySet());
+        ids.add(productId);
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        if (!products.containsKey(productId)) {
+            throw new ResourceNotFoundException("Product", "productId", productId);
+        }
+        return products;
+    }
+
+    private Map<Long, Product> loadProducts(Map<Long, Integer> items) {
+        if (items.isEmpty()) {
+            return Map.of();
+        }
+        return productRepository.findAllById(items.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+    }
+
+    private void checkAvailable(Product product, int quantity) {
+        if (product.getQuantity() == 0) {
+            throw new APIException(product.getProductName() + " is not available");
+        }
+        if (product.getQuantity() < quantity) {
+            throw new APIException("Please, make an order of the " + product.getProductName()
+                    + " less than or equal to the quantity " + product.getQuantity() + ".");
+        }
+    }
+
+    private CartDTO toDTO(Map<Long, Integer> items, Map<Long, Product> products) {
+        items.keySet().retainAll(products.keySet());
+
+        CartDTO cartDTO = new CartDTO();
+        double totalPrice = 0.0;
+        for (Map.Entry<Long, Integer> item : items.entrySet()) {
+            Product product = products.get(item.getKey());
+            ProductDTO productDTO = productMapper.toDTO(product);
+            productDTO.setQuantity(item.getValue());
+            cartDTO.getProducts().add(productDTO);
+            totalPrice += product.getSpecialPrice() * item.getValue();
+        }
+        cartDTO.setTotalPrice(totalPrice);
+        return cartDTO;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecommerce.project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes of frequently requested images, held in direct ByteBuffers so the
+ * cached data lives outside the Java heap and is never copied by the
+ * collector. Caffeine bounds the total by bytes and admits with W-TinyLFU,
+ * so a one-off request for a cold image cannot push out the hot thumbnails.
+ * Only files up to images.cache.max-entry-bytes are cached, larger ones are
+ * left to sendfile. A file is only read into a buffer on its second request
+ * within the sketch's window: the first miss returns null and is served from
+ * disk like a large file, so one-off requests never allocate or copy. Request
+ * counts are kept in a small count-min sketch that halves itself periodically.
+ * An entry remembers the size and modification time it was read with and is
+ * ignored if the file has changed since. Writers also drop entries explicitly
+ * through invalidate.
+ * Evicted buffers are released by their cleaner once unreachable, requests
+ * still writing from a buffer keep it alive until they are done.
+ */
+@Component
+public class ImageByteCache {
+    private static final int SKETCH_WIDTH = 1 << 14;
+    private static final int ADMIT_AFTER = 2;
+
+    private final Cache<Path, Entry> cache;
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final FrequencySketch sketch = new FrequencySketch(SKETCH_WIDTH);
+    private final LongAdder deferredCount = new LongAdder();
+
+    public ImageByteCache(@Value("${images.cache.max-bytes}") long maxBytes,
+                          @Value("${images.cache.max-entry-bytes}") int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Path path, Entry entry) -> entry.bytes.capacity())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a read-only view of the file's bytes, loading it on a repeated miss,
+     * or null when the file should be served from disk: too large to be cached,
+     * or not requested often enough yet.
+     */
+    public ByteBuffer get(Path file, long size, long lastModified) throws IOException {
+        if (maxBytes <= 0 || size > maxEntryBytes) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(file);
+        if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+            return entry.bytes.asReadOnlyBuffer();
+        }
+        if (sketch.increment(file) < ADMIT_AFTER) {
+            deferredCount.increment();
+            return null;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocateDirect((int) size);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // read until full or end of file
+            }
+        }
+        bytes.flip();
+        if (bytes.limit() != size || Files.getLastModifiedTime(file).toMillis() != lastModified) {
+            // Changed while reading, serve what was read but do not keep it
+            return bytes.asReadOnlyBuffer();
+        }
+        cache.put(file, new Entry(bytes, size, lastModified));
+        return bytes.asReadOnlyBuffer();
+    }
+
+    public void invalidate(Path file) {
+        cache.invalidate(file.toAbsolutePath().normalize());
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats cacheStats = cache.stats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", cache.estimatedSize());
+        stats.put("bytesResident", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        stats.put("maxBytes", maxBytes);
+        stats.put("maxEntryBytes", maxEntryBytes);
+        stats.put("hitCount", cacheStats.hitCount());
+        stats.put("missCount", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictionCount", cacheStats.evictionCount());
+        stats.put("deferredCount", deferredCount.sum());
+        return stats;
+    }
+
+    private record Entry(ByteBuffer bytes, long size, long lastModified) {
+    }
+
+    /**
+     * Count-min sketch of depth two over int counters. Collisions can only
+     * overestimate, which admits a file early but never keeps a hot one out.
+     * After ten times its width in increments every counter is halved, so old
+     * popularity fades.
+     */
+    private static final class FrequencySketch {
+        private final AtomicIntegerArray counters;
+        private final int mask;
+        private final long resetAfter;
+        private final AtomicLong increments = new AtomicLong();
+
+        FrequencySketch(int width) {
+            this.counters = new AtomicIntegerArray(width);
+            this.mask = width - 1;
+            this.resetAfter = 10L * width;
+        }
+
+        /** Counts one request for the key and returns its estimated count. */
+        int increment(Object key) {
+            int hash = key.hashCode() * 0x9E3779B9;
+            int first = counters.incrementAndGet((hash ^ (hash >>> 16)) & mask);
+            int second = counters.incrementAndGet(Integer.reverse(hash) & mask);
+            if (increments.incrementAndGet() % resetAfter == 0) {
+                for (int i = 0; i < counters.length(); i++) {
+                    counters.updateAndGet(i, count -> count >>> 1);
+                }
+            }
+            return Math.min(first, second);
+        }
+    }
+}
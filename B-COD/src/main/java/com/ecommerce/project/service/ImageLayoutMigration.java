@@ -0,0 +1,74 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.util.ImageLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
+
+/**
+ * One-off move of images from the flat directory into the ImageLayout shards.
+ * Enabled with images.layout.migrate=true, safe to run more than once and while
+ * serving, since FileService resolves both locations.
+ */
+@Component
+@ConditionalOnProperty(name = "images.layout.migrate", havingValue = "true")
+public class ImageLayoutMigration {
+    private static final Logger logger = LoggerFactory.getLogger(ImageLayoutMigration.class);
+
+    @Value("${project.image}")
+    private String path;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() throws IOException {
+        Path root = Paths.get(path).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        long moved = 0;
+        long failed = 0;
+        // Depth 3 also picks up files an earlier, looser layout sharded by mistake (default.png)
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String imageName = file.getFileName().toString();
+                Path target = root.resolve(ImageLayout.relativePath(imageName));
+                if (imageName.startsWith(".") || target.equals(file)) {
+                    continue;
+                }
+                if (move(file, target)) {
+                    moved++;
+                } else {
+                    failed++;
+                }
+            }
+        }
+        logger.info("Image layout migration moved {} files, {} failed", moved, failed);
+    }
+
+    private boolean move(Path file, Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            if (Files.exists(target)) {
+                // Names are content digests, the copy in place holds the same bytes
+                Files.delete(file);
+            } else {
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not move {} to {}: {}", file, target, e.getMessage());
+            return false;
+        }
+    }
+}
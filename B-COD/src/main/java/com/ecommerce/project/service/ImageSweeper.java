@@ -0,0 +1,191 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.util.ImageVariant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Removes image files no product refers to any more. Old images are left behind
+ * by updateProductImage and deleteProduct, and uploads can be abandoned before
+ * a product is saved. Only files older than the grace period are touched, which
+ * covers uploads whose product is not saved yet. FileServiceImpl refreshes the
+ * modification time when an upload reuses an existing file, so a re-referenced
+ * image is protected the same way. Variants and precompressed copies live and
+ * die with their original. Orphans are moved to the quarantine directory unless
+ * deletion is enabled.
+ */
+@Component
+public class ImageSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(ImageSweeper.class);
+
+    private static final String DEFAULT_IMAGE = "default.png";
+    private static final List<String> ENCODED_SUFFIXES = List.of(".gz", ".br");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ImageByteCache imageByteCache;
+
+    @Value("${project.image}")
+    private String path;
+
+    @Value("${images.sweeper.grace-period}")
+    private Duration gracePeriod;
+
+    @Value("${images.sweeper.delete}")
+    private boolean delete;
+
+    @Value("${images.sweeper.quarantine-dir}")
+    private String quarantineDir;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong orphansRemoved = new AtomicLong();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+    private volatile Instant lastRunAt;
+    private volatile long lastRunOrphans;
+    private volatile long lastRunBytes;
+    private volatile long lastRunMillis;
+
+    @Scheduled(cron = "${images.sweeper.cron}")
+    public void sweep() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Image sweep already running, skipped");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Path root = Paths.get(path).toAbsolutePath().normalize();
+            if (!Files.isDirectory(root)) {
+                return;
+            }
+            Path quarantine = Paths.get(quarantineDir).toAbsolutePath().normalize();
+            Instant cutoff = Instant.now().minus(gracePeriod);
+            Set<String> referenced = referencedImages();
+
+            long orphans = 0;
+            long bytes = 0;
+            long scanned = 0;
+            try (Stream<Path> files = Files.walk(root)) {
+                Stream<Path> candidates = files.filter(Files::isRegularFile).filter(file -> !file.startsWith(quarantine));
+                for (Path file : (Iterable<Path>) candidates::iterator) {
+                    scanned++;
+                    if (isReferenced(file.getFileName().toString(), referenced) || !olderThan(file, cutoff)) {
+                        continue;
+                    }
+                    long size = Files.size(file);
+                    if (remove(root, quarantine, file)) {
+                        orphans++;
+                        bytes += size;
+                    }
+                }
+            }
+
+            filesScanned.addAndGet(scanned);
+            orphansRemoved.addAndGet(orphans);
+            bytesReclaimed.addAndGet(bytes);
+            lastRunOrphans = orphans;
+            lastRunBytes = bytes;
+            logger.info("Image sweep scanned {} files, {} {} orphans ({} bytes)",
+                    scanned, delete ? "deleted" : "quarantined", orphans, bytes);
+        } catch (IOException e) {
+            logger.warn("Image sweep failed: {}", e.getMessage());
+        } finally {
+            runs.incrementAndGet();
+            lastRunAt = Instant.now();
+            lastRunMillis = System.currentTimeMillis() - start;
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("mode", delete ? "delete" : "quarantine");
+        stats.put("gracePeriod", gracePeriod.toString());
+        stats.put("runs", runs.get());
+        stats.put("filesScanned", filesScanned.get());
+        stats.put("orphansRemoved", orphansRemoved.get());
+        stats.put("bytesReclaimed", bytesReclaimed.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunOrphans", lastRunOrphans);
+        stats.put("lastRunBytes", lastRunBytes);
+        stats.put("lastRunMillis", lastRunMillis);
+        return stats;
+    }
+
+    /**
+     * Image names only, read through a cursor so products are never loaded.
+     */
+    private Set<String> referencedImages() {
+        Set<String> referenced = new HashSet<>();
+        referenced.add(DEFAULT_IMAGE);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> names = productRepository.streamImageNames()) {
+                names.forEach(referenced::add);
+            }
+        });
+        return referenced;
+    }
+
+    private boolean isReferenced(String fileName, Set<String> referenced) {
+        if (referenced.contains(fileName)) {
+            return true;
+        }
+        for (String suffix : ENCODED_SUFFIXES) {
+            if (fileName.endsWith(suffix)
+                    && isReferenced(fileName.substring(0, fileName.length() - suffix.length()), referenced)) {
+                return true;
+            }
+        }
+        ImageVariant variant = ImageVariant.of(fileName);
+        return variant != null && variant.originalCandidates(fileName).stream().anyMatch(referenced::contains);
+    }
+
+    private boolean olderThan(Path file, Instant cutoff) throws IOException {
+        return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+    }
+
+    private boolean remove(Path root, Path quarantine, Path file) {
+        imageByteCache.invalidate(file);
+        try {
+            if (delete) {
+                return Files.deleteIfExists(file);
+            }
+            Path target = quarantine.resolve(root.relativize(file));
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not remove orphaned image {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+}
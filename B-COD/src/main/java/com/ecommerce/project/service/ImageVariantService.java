@@ -0,0 +1,11 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.util.ImageVariant;
+
+import java.nio.file.Path;
+
+public interface ImageVariantService {
+    void generateVariants(Path original);
+
+    Path generateVariant(Path original, ImageVariant variant);
+}
@@ -0,0 +1,180 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.util.ImageVariant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the ImageVariant sizes of an uploaded image off the request thread.
+ * Variants are written to a temp file and moved into place, so a reader never
+ * sees a half written file. Images are only ever scaled down.
+ */
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantServiceImpl.class);
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    // Variant files being rendered on request, later requests for the same file wait for it
+    private final Map<Path, CompletableFuture<Path>> pendingVariants = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ImageByteCache imageByteCache;
+
+    @Async
+    @Override
+    public void generateVariants(Path original) {
+        if (!inFlight.add(original)) {
+            return;
+        }
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null) {
+                logger.debug("No ImageIO reader for {}, variants not generated", original);
+                return;
+            }
+            String fileName = original.getFileName().toString();
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path target = original.resolveSibling(variant.fileName(fileName));
+                if (!Files.exists(target) && !pendingVariants.containsKey(target)) {
+                    write(resize(source, variant.getWidth()), target);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not generate variants of {}: {}", original, e.getMessage());
+        } finally {
+            inFlight.remove(original);
+        }
+    }
+
+    /**
+     * Synchronous version for a single variant, used when a variant is requested
+     * before it exists. Concurrent requests for the same variant share one
+     * decode, the others wait for its result. Returns null when the original
+     * cannot be decoded.
+     */
+    @Override
+    public Path generateVariant(Path original, ImageVariant variant) {
+        Path target = original.resolveSibling(variant.fileName(original.getFileName().toString()));
+        if (Files.exists(target)) {
+            return target;
+        }
+        CompletableFuture<Path> generation = new CompletableFuture<>();
+        CompletableFuture<Path> running = pendingVariants.putIfAbsent(target, generation);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                return null;
+            }
+        }
+        try {
+            Path generated = Files.exists(target) ? target : render(original, variant, target);
+            generation.complete(generated);
+            return generated;
+        } catch (RuntimeException | Error e) {
+            // Also on OutOfMemoryError from a huge decode, waiters must not hang
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingVariants.remove(target, generation);
+        }
+    }
+
+    private Path render(Path original, ImageVariant variant, Path target) {
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null) {
+                return null;
+            }
+            write(resize(source, variant.getWidth()), target);
+            return target;
+        } catch (IOException e) {
+            logger.warn("Could not generate {} variant of {}: {}", variant, original, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Halves the image until it is within 2x of the target, then does a final
+     * bilinear step. A single bilinear step from a large photo skips most source
+     * pixels and looks jagged.
+     */
+    private BufferedImage resize(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            if (currentWidth / 2 >= targetWidth) {
+                currentWidth /= 2;
+                currentHeight = Math.max(targetHeight, currentHeight / 2);
+            } else {
+                currentWidth = targetWidth;
+                currentHeight = targetHeight;
+            }
+            current = draw(current, currentWidth, currentHeight);
+        } while (currentWidth != targetWidth);
+        return current;
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        // RGB without alpha, transparent areas become white since JPEG has no alpha
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            imageByteCache.invalidate(target);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+}
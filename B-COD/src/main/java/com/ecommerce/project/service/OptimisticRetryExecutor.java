@@ -0,0 +1,100 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and starts it over when a
+ * versioned entity was changed by someone else in the meantime. Each attempt
+ * reads fresh rows, so the second click of a race is applied on top of the
+ * first one instead of overwriting it. Attempts back off with jitter so racing
+ * requests do not collide again in lockstep.
+ * Called inside an existing transaction the action simply joins it, a conflict
+ * then propagates and the outermost caller retries the whole unit.
+ */
+@Component
+public class OptimisticRetryExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${concurrency.retry.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${concurrency.retry.backoff-millis}")
+    private long backoffMillis;
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        Counters operationCounters = counters.computeIfAbsent(operation, name -> new Counters());
+        operationCounters.calls.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                operationCounters.conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    operationCounters.exhausted.incrementAndGet();
+                    logger.warn("{} gave up after {} conflicting attempts", operation, attempt);
+                    throw new APIException("The data was changed by another request, please try again");
+                }
+                operationCounters.retries.incrementAndGet();
+                backOff(attempt);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        counters.forEach((operation, operationCounters) -> {
+            Map<String, Object> operationStats = new LinkedHashMap<>();
+            operationStats.put("calls", operationCounters.calls.get());
+            operationStats.put("conflicts", operationCounters.conflicts.get());
+            operationStats.put("retries", operationCounters.retries.get());
+            operationStats.put("exhausted", operationCounters.exhausted.get());
+            stats.put(operation, operationStats);
+        });
+        return stats;
+    }
+
+    // Upper bound of the sleep after the given attempt, doubling up to 64 times the base
+    long backoffBound(int attempt) {
+        return backoffMillis << Math.min(attempt - 1, 6);
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffBound(attempt) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new APIException("Interrupted while retrying");
+        }
+    }
+
+    private static final class Counters {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong conflicts = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong exhausted = new AtomicLong();
+    }
+}
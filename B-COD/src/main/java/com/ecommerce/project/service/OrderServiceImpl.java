@@ -2,14 +2,14 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.OrderMapper;
 import com.ecommerce.project.model.*;
 import com.ecommerce.project.payload.OrderDTO;
-import com.ecommerce.project.payload.OrderItemDTO;
 import com.ecommerce.project.repositories.*;
-import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -37,14 +37,32 @@ public class OrderServiceImpl implements OrderService {
     CartService cartService;
 
     @Autowired
-    ModelMapper modelMapper;
+    private OrderMapper orderMapper;
 
     @Autowired
     ProductRepository productRepository;
 
+    @Autowired
+    private CatalogCacheEvictor catalogCacheEvictor;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    /**
+     * Stock and cart rows are versioned, an order racing another order for the
+     * same product or a click on the same cart is placed again from fresh rows.
+     */
     @Override
-    @Transactional
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage) {
+        return optimisticRetryExecutor.execute("placeOrder",
+                () -> placeOrderOnce(emailId, addressId, paymentMethod, pgName, pgPaymentId, pgStatus, pgResponseMessage));
+    }
+
+    private OrderDTO placeOrderOnce(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage) {
+        cartService.flushCart(emailId);
         Cart cart = cartRepository.findCartByEmail(emailId);
         if (cart == null) {
             throw new ResourceNotFoundException("Cart", "email", emailId);
@@ -94,13 +112,24 @@ public class OrderServiceImpl implements OrderService {
 
             // Save product back to the database
             productRepository.save(product);
+            Long categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+            Long sellerId = product.getUser() != null ? product.getUser().getUserId() : null;
+            Long productId = product.getProductId();
+            // Only for the attempt that commits, a retried attempt must not count twice
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogCacheEvictor.productChanged(categoryId, sellerId);
+                    suggestionService.productOrdered(productId, quantity);
+                }
+            });
 
             // Remove items from cart
             cartService.deleteProductFromCart(cart.getCartId(), item.getProduct().getProductId());
         });
 
-        OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
-        orderItems.forEach(item -> orderDTO.getOrderItems().add(modelMapper.map(item, OrderItemDTO.class)));
+        OrderDTO orderDTO = orderMapper.toDTO(savedOrder);
+        orderItems.forEach(item -> orderDTO.getOrderItems().add(orderMapper.toDTO(item)));
 
         orderDTO.setAddressId(addressId);
 
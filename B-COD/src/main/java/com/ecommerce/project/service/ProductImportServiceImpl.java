@@ -0,0 +1,288 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.mapper.ProductMapper;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportError;
+import com.ecommerce.project.payload.ProductImportResponse;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.util.AuthUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams CSV or NDJSON rows from the request body and inserts them in JDBC
+ * batches (hibernate.jdbc.batch_size). Product ids come from the pooled
+ * sequence, so a batch needs one sequence call per allocation block instead
+ * of one per row. Every batch commits on its own, a failing row is reported
+ * and skipped without rolling back the rows around it. A batch the database
+ * rejects is retried row by row, each row in its own transaction, so only the
+ * offending rows are reported.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CatalogCacheEvictor catalogCacheEvictor;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private AuthUtil authUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public ProductImportResponse importProducts(InputStream input, String contentType) throws IOException {
+        boolean csv = isCsv(contentType);
+        long start = System.nanoTime();
+
+        User seller = authUtil.loggedInUser();
+        ImportState state = new ImportState();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String[] header = csv ? parseHeader(reader.readLine()) : null;
+        long rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            rowNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            state.response.setTotalRows(state.response.getTotalRows() + 1);
+            try {
+                ProductDTO productDTO = csv ? parseCsvRow(header, line) : objectMapper.readValue(line, ProductDTO.class);
+                state.add(rowNumber, toProduct(productDTO, seller, state));
+            } catch (APIException | IOException | IllegalArgumentException e) {
+                state.fail(rowNumber, e.getMessage());
+            }
+            if (state.batch.size() >= BATCH_SIZE) {
+                insertBatch(state);
+            }
+        }
+        insertBatch(state);
+
+        state.categories.keySet().forEach(categoryId ->
+                catalogCacheEvictor.productChanged(categoryId, seller.getUserId()));
+
+        long elapsedNanos = System.nanoTime() - start;
+        ProductImportResponse response = state.response;
+        response.setElapsedMillis(elapsedNanos / 1_000_000);
+        response.setRowsPerSecond(elapsedNanos == 0 ? 0 : response.getTotalRows() * 1_000_000_000.0 / elapsedNanos);
+        return response;
+    }
+
+    /**
+     * Applies the same rules as ProductService.addProduct: the category must
+     * exist, the name must be unique within it and the entity constraints
+     * must hold.
+     */
+    private Product toProduct(ProductDTO productDTO, User seller, ImportState state) {
+        Long categoryId = productDTO.getCategoryId();
+        if (categoryId == null) {
+            throw new APIException("categoryId is required");
+        }
+        Category category = state.categories.computeIfAbsent(categoryId,
+                id -> categoryRepository.findById(id)).orElseThrow(() ->
+                new APIException("Category not found with categoryId: " + categoryId));
+
+        Product product = productMapper.toEntity(productDTO);
+        product.setProductId(null);
+        product.setImage("default.png");
+        product.setCategory(category);
+        product.setUser(seller);
+        double specialPrice = product.getPrice() - ((product.getDiscount() * 0.01) * product.getPrice());
+        product.setSpecialPrice(specialPrice);
+
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            throw new APIException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining(", ")));
+        }
+
+        Set<String> names = state.productNames.computeIfAbsent(categoryId,
+                id -> new HashSet<>(productRepository.findProductNamesByCategoryId(id)));
+        if (!names.add(product.getProductName().toLowerCase())) {
+            throw new APIException("Product already exists!!");
+        }
+        return product;
+    }
+
+    private void insertBatch(ImportState state) {
+        if (state.batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                state.batch.forEach(entityManager::persist);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            state.response.setImportedRows(state.response.getImportedRows() + state.batch.size());
+            state.batch.forEach(suggestionService::productSaved);
+        } catch (RuntimeException e) {
+            // The database rejected a row the checks above let through, find it row by row
+            for (int i = 0; i < state.batch.size(); i++) {
+                insertRow(state, state.batchRows.get(i), state.batch.get(i));
+            }
+        }
+        state.batch.clear();
+        state.batchRows.clear();
+    }
+
+    private void insertRow(ImportState state, long row, Product product) {
+        // Values the rolled back batch assigned, the row is persisted as new again
+        product.setProductId(null);
+        product.setVersion(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(product);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            state.response.setImportedRows(state.response.getImportedRows() + 1);
+            suggestionService.productSaved(product);
+        } catch (RuntimeException e) {
+            state.productNames.getOrDefault(product.getCategory().getCategoryId(), Set.of())
+                    .remove(product.getProductName().toLowerCase());
+            state.fail(row, "Insert failed: " + e.getMessage());
+        }
+    }
+
+    private boolean isCsv(String contentType) {
+        if (contentType != null && contentType.contains("csv")) {
+            return true;
+        }
+        if (contentType != null && contentType.contains("json")) {
+            return false;
+        }
+        throw new APIException("Unsupported import format, use text/csv or application/x-ndjson");
+    }
+
+    private String[] parseHeader(String headerLine) {
+        if (headerLine == null) {
+            throw new APIException("CSV import requires a header row");
+        }
+        return splitCsvLine(headerLine.replace("\uFEFF", "")).toArray(new String[0]);
+    }
+
+    private ProductDTO parseCsvRow(String[] header, String line) {
+        List<String> values = splitCsvLine(line);
+        if (values.size() != header.length) {
+            throw new APIException("Expected " + header.length + " columns but found " + values.size());
+        }
+        ProductDTO productDTO = new ProductDTO();
+        for (int i = 0; i < header.length; i++) {
+            String value = values.get(i).trim();
+            switch (header[i].trim()) {
+                case "productName" -> productDTO.setProductName(value);
+                case "description" -> productDTO.setDescription(value);
+                case "quantity" -> productDTO.setQuantity(Integer.valueOf(value));
+                case "price" -> productDTO.setPrice(Double.parseDouble(value));
+                case "discount" -> productDTO.setDiscount(value.isEmpty() ? 0 : Double.parseDouble(value));
+                case "categoryId" -> productDTO.setCategoryId(Long.valueOf(value));
+                default -> { }
+            }
+        }
+        return productDTO;
+    }
+
+    /**
+     * Splits one CSV record. Quoted fields may contain commas and doubled
+     * quotes, records spanning several lines are not supported.
+     */
+    private List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static class ImportState {
+        private final ProductImportResponse response = new ProductImportResponse();
+        private final Map<Long, Optional<Category>> categories = new HashMap<>();
+        private final Map<Long, Set<String>> productNames = new HashMap<>();
+        private final List<Product> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<Long> batchRows = new ArrayList<>(BATCH_SIZE);
+
+        private void add(long row, Product product) {
+            batch.add(product);
+            batchRows.add(row);
+        }
+
+        private void fail(long row, String message) {
+            response.setFailedRows(response.getFailedRows() + 1);
+            if (response.getErrors().size() < MAX_REPORTED_ERRORS) {
+                response.getErrors().add(new ProductImportError(row, message));
+            }
+        }
+    }
+}
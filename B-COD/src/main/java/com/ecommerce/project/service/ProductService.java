@@ -1,27 +1,31 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.payload.CountStrategy;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.payload.ProductResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 public interface ProductService {
 
 
-    ProductDTO addProduct(ProductDTO productDTO, MultipartFile image);
+    ProductDTO addProduct(ProductDTO productDTO, MultipartFile image, String uploadId);
 
-    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category);
+    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category, String after, CountStrategy countStrategy, boolean facets);
 
-    ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String after, CountStrategy countStrategy);
 
-    ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, CountStrategy countStrategy);
 
     ProductDTO updateProduct(Long productId, ProductDTO product);
 
     ProductDTO deleteProduct(Long productId);
 
-    ProductDTO updateProductImage(Long productId, MultipartFile image) throws IOException;
+    ProductDTO updateProductImage(Long productId, MultipartFile image, String uploadId) throws IOException;
 
-    ProductResponse getProductsBySeller(Long sellerId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    ProductResponse getProductsBySeller(Long sellerId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String after, CountStrategy countStrategy);
+
+    void exportProducts(Long categoryId, Long sellerId, OutputStream output) throws IOException;
 }
@@ -1,41 +1,69 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.config.CacheConfig;
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.ProductMapper;
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
 import com.ecommerce.project.model.User;
-import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CountStrategy;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.repositories.CartItemRepository;
 import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.CategoryRepository;
 import com.ecommerce.project.repositories.ProductRepository;
 import com.ecommerce.project.util.AuthUtil;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.util.ImageLayout;
+import com.ecommerce.project.util.ImageVariant;
+import com.ecommerce.project.util.KeysetCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements ProductService {
     @Autowired
     private CartRepository cartRepository;
 
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
     @Autowired
     private CartService cartService;
 
+    @Autowired(required = false)
+    private WriteBehindCartStore writeBehindCartStore;
+
     @Autowired
     AuthUtil authUtil;
 
@@ -46,37 +74,54 @@ public class ProductServiceImpl implements ProductService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
 
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private CatalogCacheEvictor catalogCacheEvictor;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Value("${project.image}")
     private String path;
 
     @Value("${image.base.url}")
     private String imageBaseUrl;
 
+    @Value("${catalog.facets.price-bounds}")
+    private List<Double> priceFacetBounds;
+
     @Override
-    public ProductDTO addProduct(ProductDTO productDTO, MultipartFile image) {
+    public ProductDTO addProduct(ProductDTO productDTO, MultipartFile image, String uploadId) {
         long categoryId = productDTO.getCategoryId();
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Category", "categoryId", categoryId));
 
-        boolean isProductNotPresent = category.getProducts().stream()
-                .noneMatch(p -> p.getProductName().equalsIgnoreCase(productDTO.getProductName()));
-
-        if (!isProductNotPresent) {
+        if (productRepository.existsByCategoryCategoryIdAndProductNameIgnoreCase(categoryId, productDTO.getProductName())) {
             throw new APIException("Product already exists!!");
         }
 
         User currentUser = authUtil.loggedInUser();
 
-        Product product = modelMapper.map(productDTO, Product.class);
+        Product product = productMapper.toEntity(productDTO);
 
         try {
-            String fileName = (image != null && !image.isEmpty())
+            String fileName = uploadId != null
+                    ? chunkedUploadService.commitUpload(uploadId).getImageName()
+                    : (image != null && !image.isEmpty())
                     ? fileService.uploadImage(path, image)
                     : "default.png";
             product.setImage(fileName);
@@ -90,143 +135,322 @@ public class ProductServiceImpl implements ProductService {
         product.setSpecialPrice(specialPrice);
 
         Product savedProduct = productRepository.save(product);
+        evictCachedListings(savedProduct);
+        suggestionService.productSaved(savedProduct);
 
-        ProductDTO responseProductDTO = modelMapper.map(savedProduct, ProductDTO.class);
+        ProductDTO responseProductDTO = productMapper.toDTO(savedProduct);
         responseProductDTO.setSellerId(currentUser.getUserId());
         responseProductDTO.setSellerName(currentUser.getUserName());
-        responseProductDTO.setImage(constructImageUrl(savedProduct.getImage())); // Include full image URL
+        withImageUrl(responseProductDTO); // Include full image URLs
 
         return responseProductDTO;
     }
 
 
     @Override
-    public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category) {
+    @Cacheable(value = CacheConfig.PRODUCTS,
+            key = "{'all', #pageNumber, #pageSize, #sortBy, #sortOrder, #keyword, #category, #after, #countStrategy, #facets}")
+    public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category, String after, CountStrategy countStrategy, boolean facets) {
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Specification<Product> spec = Specification.where(null);
-        if (keyword != null && !keyword.isEmpty()) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("productName")), "%" + keyword.toLowerCase() + "%"));
-        }
-
+        Specification<Product> filter = Specification.where(null);
+        boolean filtered = false;
         if (category != null && !category.isEmpty()) {
-            spec = spec.and((root, query, criteriaBuilder) ->
+            filter = filter.and((root, query, criteriaBuilder) ->
                     criteriaBuilder.like(root.get("category").get("categoryName"), category));
+            filtered = true;
+        }
+
+        boolean hasKeyword = keyword != null && !keyword.isEmpty();
+        Specification<Product> spec = filter;
+        if (hasKeyword) {
+            // Relevance ordering is applied by the specification itself
+            pageDetails = PageRequest.of(pageNumber, pageSize);
+            spec = filter.and(fullTextSearch(keyword, sortBy, sortOrder));
         }
 
-        Page<Product> pageProducts = productRepository.findAll(spec, pageDetails);
+        ProductResponse productResponse;
+        if (after != null) {
+            if (hasKeyword) {
+                throw new APIException("Cursor pagination is not supported for keyword search");
+            }
+            productResponse = seekProducts(spec, after, pageSize, sortBy, sortOrder);
+        } else if (hasKeyword) {
+            productResponse = fetchKeywordPage(filter, keyword, pageDetails, countStrategy, sortBy, sortOrder);
+            if (productResponse.isFuzzy()) {
+                spec = filter.and(fuzzySearch(keyword, sortBy, sortOrder));
+            }
+        } else {
+            productResponse = fetchPage(spec, pageDetails, countStrategy, filtered);
+        }
 
-        List<Product> products = pageProducts.getContent();
+        if (facets) {
+            productResponse.setFacets(productRepository.findFacets(spec, priceFacetBounds));
+        }
+        return productResponse;
+    }
 
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> {
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageUrl(product.getImage()));
-                    productDTO.setSellerId(product.getUser().getUserId());
-                    productDTO.setSellerName(product.getUser().getUserName());
-                    return productDTO;
-                })
+    /**
+     * Offset pagination with a selectable count strategy. One row past the page is
+     * fetched so lastPage is always known without counting. The total is free when
+     * the page is the last one, otherwise it is counted, estimated or left out.
+     * The planner estimate only covers the whole table, so filtered listings fall
+     * back to an exact count when an estimate is requested.
+     */
+    private ProductResponse fetchPage(Specification<Product> spec, Pageable pageable, CountStrategy countStrategy, boolean filtered) {
+        int pageSize = pageable.getPageSize();
+        long offset = pageable.getOffset();
+        List<ProductDTO> products = productRepository.findProductDTOs(spec, pageable.getSort(), offset, pageSize + 1);
+
+        boolean hasNext = products.size() > pageSize;
+        List<ProductDTO> pageContent = hasNext ? products.subList(0, pageSize) : products;
+
+        List<ProductDTO> productDTOS = pageContent.stream()
+                .map(this::withImageUrl)
                 .toList();
 
         ProductResponse productResponse = new ProductResponse();
         productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
+        productResponse.setPageNumber(pageable.getPageNumber());
+        productResponse.setPageSize(pageSize);
+        productResponse.setLastPage(!hasNext);
+
+        Long totalElements = null;
+        if (!hasNext && (offset == 0 || !pageContent.isEmpty())) {
+            totalElements = offset + pageContent.size();
+        } else if (countStrategy == CountStrategy.EXACT
+                || (countStrategy == CountStrategy.ESTIMATED && filtered)) {
+            totalElements = productRepository.count(spec);
+        } else if (countStrategy == CountStrategy.ESTIMATED) {
+            Long estimate = productRepository.estimateRowCount();
+            if (estimate == null || estimate < 0) {
+                // Table has never been analyzed, no estimate available
+                totalElements = productRepository.count(spec);
+            } else {
+                totalElements = Math.max(estimate, offset + pageSize + 1);
+                productResponse.setApproximateTotal(true);
+            }
+        }
+
+        if (totalElements != null) {
+            productResponse.setTotalElements(totalElements);
+            productResponse.setTotalPages((int) Math.ceil((double) totalElements / pageSize));
+        }
+        return productResponse;
+    }
+
+    /**
+     * Full-text page, falling back to trigram matching when the full-text search
+     * has no hits at all. An empty later page only triggers the fallback if the
+     * full-text search matches nothing, so paging through fuzzy results keeps
+     * returning fuzzy results.
+     */
+    private ProductResponse fetchKeywordPage(Specification<Product> filter, String keyword, Pageable pageable, CountStrategy countStrategy, String sortBy, String sortOrder) {
+        Specification<Product> exact = filter.and(fullTextSearch(keyword, sortBy, sortOrder));
+        ProductResponse productResponse = fetchPage(exact, pageable, countStrategy, true);
+        if (productResponse.getContent().isEmpty()
+                && (pageable.getPageNumber() == 0 || !productRepository.exists(exact))) {
+            productResponse = fetchPage(filter.and(fuzzySearch(keyword, sortBy, sortOrder)), pageable, countStrategy, true);
+            productResponse.setFuzzy(true);
+        }
         return productResponse;
     }
 
+    /**
+     * Keyset pagination: instead of skipping OFFSET rows, seek directly past the
+     * last row of the previous page using (sortBy, productId). An empty cursor
+     * starts from the first row. One extra row is fetched to know whether a next
+     * page exists, so no count query is needed.
+     */
+    private ProductResponse seekProducts(Specification<Product> spec, String after, Integer pageSize, String sortBy, String sortOrder) {
+        if (!KeysetCursor.SORTABLE_FIELDS.contains(sortBy)) {
+            throw new APIException("Cursor pagination is not supported when sorting by " + sortBy);
+        }
+
+        Specification<Product> seekSpec = spec;
+        if (!after.isBlank()) {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            if (!cursor.matches(sortBy, sortOrder)) {
+                throw new APIException("Cursor does not match the requested sort order");
+            }
+            seekSpec = spec.and(seekAfter(cursor));
+        }
+
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort keysetSort = sortBy.equals("productId")
+                ? Sort.by(direction, "productId")
+                : Sort.by(direction, sortBy, "productId");
+
+        List<ProductDTO> products = productRepository.findProductDTOs(seekSpec, keysetSort, 0, pageSize + 1);
+
+        boolean hasNext = products.size() > pageSize;
+        List<ProductDTO> pageContent = hasNext ? products.subList(0, pageSize) : products;
+
+        List<ProductDTO> productDTOS = pageContent.stream()
+                .map(this::withImageUrl)
+                .toList();
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(productDTOS);
+        productResponse.setPageSize(pageSize);
+        productResponse.setLastPage(!hasNext);
+        if (hasNext) {
+            ProductDTO last = pageContent.get(pageContent.size() - 1);
+            productResponse.setNextCursor(KeysetCursor.after(last, sortBy, sortOrder).encode());
+        }
+        return productResponse;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Specification<Product> seekAfter(KeysetCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            Path<Long> productId = root.get("productId");
+            Predicate afterProductId = cursor.isAscending()
+                    ? criteriaBuilder.greaterThan(productId, cursor.getProductId())
+                    : criteriaBuilder.lessThan(productId, cursor.getProductId());
+
+            if (cursor.getSortBy().equals("productId")) {
+                return afterProductId;
+            }
+
+            Path<Comparable> sortKey = root.get(cursor.getSortBy());
+            Comparable sortValue = (Comparable) cursor.sortValueAs(sortKey.getJavaType());
+            Predicate afterSortKey = cursor.isAscending()
+                    ? criteriaBuilder.greaterThan(sortKey, sortValue)
+                    : criteriaBuilder.lessThan(sortKey, sortValue);
+
+            return criteriaBuilder.or(afterSortKey,
+                    criteriaBuilder.and(criteriaBuilder.equal(sortKey, sortValue), afterProductId));
+        };
+    }
+
+    /**
+     * Replaces the stored image name with its URL and adds the resized variants
+     * for the product grid. Variants that are not generated yet are served as
+     * the original by the image handler.
+     */
+    private ProductDTO withImageUrl(ProductDTO productDTO) {
+        String image = productDTO.getImage();
+        if (image == null) {
+            return productDTO;
+        }
+        productDTO.setImage(constructImageUrl(image));
+        productDTO.setThumbnailUrl(constructImageUrl(ImageVariant.THUMB.fileName(image)));
+        productDTO.setSrcset(Arrays.stream(ImageVariant.values())
+                .map(variant -> constructImageUrl(variant.fileName(image)) + " " + variant.getWidth() + "w")
+                .collect(Collectors.joining(", ")));
+        return productDTO;
+    }
+
+    /**
+     * Full-text match on product name and description, ranked by relevance.
+     * The requested sort field is only used to break ties between equal ranks.
+     */
+    private Specification<Product> fullTextSearch(String keyword, String sortBy, String sortOrder) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<String> productName = root.get("productName");
+            Expression<String> description = root.get("description");
+            Expression<String> searchTerms = criteriaBuilder.literal(keyword);
+
+            Expression<Double> rank = criteriaBuilder.function("fts_rank", Double.class,
+                    productName, description, searchTerms);
+            Order tieBreaker = sortOrder.equalsIgnoreCase("asc")
+                    ? criteriaBuilder.asc(root.get(sortBy))
+                    : criteriaBuilder.desc(root.get(sortBy));
+            query.orderBy(criteriaBuilder.desc(rank), tieBreaker);
+
+            return criteriaBuilder.isTrue(criteriaBuilder.function("fts_match", Boolean.class,
+                    productName, description, searchTerms));
+        };
+    }
+
+    /**
+     * Typo-tolerant match on the product name using pg_trgm word similarity,
+     * ranked by similarity. Used when the full-text search finds nothing.
+     */
+    private Specification<Product> fuzzySearch(String keyword, String sortBy, String sortOrder) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<String> productName = root.get("productName");
+            Expression<String> searchTerms = criteriaBuilder.literal(keyword);
+
+            Expression<Double> similarity = criteriaBuilder.function("trgm_similarity", Double.class,
+                    productName, searchTerms);
+            Order tieBreaker = sortOrder.equalsIgnoreCase("asc")
+                    ? criteriaBuilder.asc(root.get(sortBy))
+                    : criteriaBuilder.desc(root.get(sortBy));
+            query.orderBy(criteriaBuilder.desc(similarity), tieBreaker);
+
+            return criteriaBuilder.isTrue(criteriaBuilder.function("trgm_match", Boolean.class,
+                    productName, searchTerms));
+        };
+    }
+
+    private void evictCachedListings(Product product) {
+        catalogCacheEvictor.productChanged(
+                product.getCategory() != null ? product.getCategory().getCategoryId() : null,
+                product.getUser() != null ? product.getUser().getUserId() : null);
+    }
+
     private String constructImageUrl(String imageName) {
-        return imageBaseUrl.endsWith("/") ? imageBaseUrl + imageName : imageBaseUrl + "/" + imageName;
+        String imagePath = ImageLayout.relativePath(imageName);
+        return imageBaseUrl.endsWith("/") ? imageBaseUrl + imagePath : imageBaseUrl + "/" + imagePath;
     }
 
     @Override
-    public ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+    @Cacheable(value = CacheConfig.PRODUCTS_BY_CATEGORY,
+            key = "{#categoryId, #pageNumber, #pageSize, #sortBy, #sortOrder, #after, #countStrategy}")
+    public ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String after, CountStrategy countStrategy) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Category", "categoryId", categoryId));
 
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByCategoryOrderByPriceAsc(category, pageDetails);
-
-        List<Product> products = pageProducts.getContent();
+        Specification<Product> inCategory = (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("category").get("categoryId"), categoryId);
 
-        if(products.isEmpty()){
-            throw new APIException(category.getCategoryName() + " category does not have any products");
+        if (after != null) {
+            return seekProducts(inCategory, after, pageSize, sortBy, sortOrder);
         }
 
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> {
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageUrl(product.getImage()));
-                    productDTO.setSellerId(product.getUser() != null ? product.getUser().getUserId() : null);
-                    productDTO.setSellerName(product.getUser().getUserName());
-                    return productDTO;
-                })
-                .toList();
+        // Same order as seekProducts, so switching between pages and cursors does not reshuffle rows
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sortByAndOrder = sortBy.equals("productId")
+                ? Sort.by(direction, "productId")
+                : Sort.by(direction, sortBy, "productId");
 
+        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+        ProductResponse productResponse = fetchPage(inCategory, pageDetails, countStrategy, true);
 
+        if(productResponse.getContent().isEmpty()){
+            throw new APIException(category.getCategoryName() + " category does not have any products");
+        }
 
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
         return productResponse;
     }
 
     @Override
-    public ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByProductNameLikeIgnoreCase('%' + keyword + '%', pageDetails);
-
-        List<Product> products = pageProducts.getContent();
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> {
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageUrl(product.getImage()));
-                    productDTO.setSellerId(product.getUser() != null ? product.getUser().getUserId() : null);
-                    productDTO.setSellerName(product.getUser().getUserName());
-                    return productDTO;
-                })
-                .toList();
+    @Cacheable(value = CacheConfig.PRODUCTS,
+            key = "{'keyword', #keyword, #pageNumber, #pageSize, #sortBy, #sortOrder, #countStrategy}")
+    public ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, CountStrategy countStrategy) {
+        Pageable pageDetails = PageRequest.of(pageNumber, pageSize);
+        ProductResponse productResponse = fetchKeywordPage(Specification.where(null), keyword, pageDetails, countStrategy, sortBy, sortOrder);
 
-        if(products.isEmpty()){
+        if(productResponse.getContent().isEmpty()){
             throw new APIException("Products not found with keyword: " + keyword);
         }
 
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
         return productResponse;
     }
 
     @Override
+    @Transactional
     public ProductDTO updateProduct(Long productId, ProductDTO productDTO) {
         Product productFromDb = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        Product product = modelMapper.map(productDTO, Product.class);
+        Product product = productMapper.toEntity(productDTO);
 
         productFromDb.setProductName(product.getProductName());
         productFromDb.setDescription(product.getDescription());
@@ -236,24 +460,24 @@ public class ProductServiceImpl implements ProductService {
         productFromDb.setSpecialPrice(product.getSpecialPrice());
 
         Product savedProduct = productRepository.save(productFromDb);
+        // After commit, a listing read between eviction and commit would cache the old rows again
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictCachedListings(savedProduct);
+                suggestionService.productSaved(savedProduct);
+            }
+        });
+
+        // Reprice every cart holding the product in two statements, totals first
+        // since they are computed from the old line price
+        cartRepository.repriceCartsForProduct(productId, savedProduct.getSpecialPrice());
+        cartItemRepository.updateProductPrice(productId, savedProduct.getSpecialPrice());
+        if (writeBehindCartStore != null) {
+            writeBehindCartStore.productRepriced(productId, savedProduct.getSpecialPrice());
+        }
 
-        List<Cart> carts = cartRepository.findCartsByProductId(productId);
-
-        List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-            List<ProductDTO> products = cart.getCartItems().stream()
-                    .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class)).collect(Collectors.toList());
-
-            cartDTO.setProducts(products);
-
-            return cartDTO;
-
-        }).collect(Collectors.toList());
-
-        cartDTOs.forEach(cart -> cartService.updateProductInCarts(cart.getCartId(), productId));
-
-        return modelMapper.map(savedProduct, ProductDTO.class);
+        return productMapper.toDTO(savedProduct);
     }
 
     @Override
@@ -266,51 +490,80 @@ public class ProductServiceImpl implements ProductService {
         carts.forEach(cart -> cartService.deleteProductFromCart(cart.getCartId(), productId));
 
         productRepository.delete(product);
-        return modelMapper.map(product, ProductDTO.class);
+        evictCachedListings(product);
+        suggestionService.productDeleted(productId);
+        return productMapper.toDTO(product);
     }
 
     @Override
-    public ProductDTO updateProductImage(Long productId, MultipartFile image) throws IOException {
+    public ProductDTO updateProductImage(Long productId, MultipartFile image, String uploadId) throws IOException {
         Product productFromDb = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        String fileName = fileService.uploadImage(path, image);
+        String fileName;
+        if (uploadId != null) {
+            fileName = chunkedUploadService.commitUpload(uploadId).getImageName();
+        } else if (image != null && !image.isEmpty()) {
+            fileName = fileService.uploadImage(path, image);
+        } else {
+            throw new APIException("Either an image or an uploadId is required");
+        }
         productFromDb.setImage(fileName);
 
         Product updatedProduct = productRepository.save(productFromDb);
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        evictCachedListings(updatedProduct);
+        return productMapper.toDTO(updatedProduct);
     }
 
     @Override
-    public ProductResponse getProductsBySeller(Long sellerId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+    @Cacheable(value = CacheConfig.PRODUCTS_BY_SELLER,
+            key = "{#sellerId, #pageNumber, #pageSize, #sortBy, #sortOrder, #after, #countStrategy}")
+    public ProductResponse getProductsBySeller(Long sellerId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String after, CountStrategy countStrategy) {
+        Specification<Product> bySeller = (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("user").get("userId"), sellerId);
+
+        if (after != null) {
+            return seekProducts(bySeller, after, pageSize, sortBy, sortOrder);
+        }
+
         Sort sort = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
         Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
-        Page<Product> pageProducts = productRepository.findByUserUserId(sellerId, pageable);
-
-        List<ProductDTO> productDTOs = pageProducts.getContent().stream()
-                .map(product -> {
-                    ProductDTO dto = modelMapper.map(product, ProductDTO.class);
-                    dto.setImage(constructImageUrl(product.getImage()));
-                    dto.setSellerId(product.getUser().getUserId());
-                    dto.setSellerName(product.getUser().getUserName());
-                    return dto;
-                })
-                .collect(Collectors.toList());
-
-        ProductResponse response = new ProductResponse();
-        response.setContent(productDTOs);
-        response.setPageNumber(pageProducts.getNumber());
-        response.setPageSize(pageProducts.getSize());
-        response.setTotalElements(pageProducts.getTotalElements());
-        response.setTotalPages(pageProducts.getTotalPages());
-        response.setLastPage(pageProducts.isLast());
-
-        return response;
+        return fetchPage(bySeller, pageable, countStrategy, true);
     }
 
+    /**
+     * Writes one JSON object per line straight to the output. Rows come from a
+     * server-side cursor and are never collected, so memory stays flat however
+     * large the catalog is.
+     */
+    @Override
+    public void exportProducts(Long categoryId, Long sellerId, OutputStream output) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<ProductDTO> products = productRepository.streamProductDTOs(categoryId, sellerId)) {
+                    Iterator<ProductDTO> iterator = products.iterator();
+                    while (iterator.hasNext()) {
+                        writer.writeValue(generator, withImageUrl(iterator.next()));
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+    }
 
     // TAMBAHAN
 
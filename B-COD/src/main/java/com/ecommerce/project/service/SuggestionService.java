@@ -0,0 +1,21 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.SuggestionDTO;
+
+import java.util.List;
+
+public interface SuggestionService {
+    List<SuggestionDTO> suggest(String prefix, int limit);
+
+    void productSaved(Product product);
+
+    void productDeleted(Long productId);
+
+    void productOrdered(Long productId, int quantity);
+
+    void categorySaved(Category category);
+
+    void categoryDeleted(Long categoryId);
+}
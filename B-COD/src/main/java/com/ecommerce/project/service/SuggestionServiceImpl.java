@@ -0,0 +1,255 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.SuggestionDTO;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.OrderItemRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over product and category names. Every name is stored
+ * under each of its word-boundary suffixes ("red wool scarf", "wool scarf",
+ * "scarf") in a sorted map, so a prefix lookup is a range scan starting at the
+ * prefix. Matches are ranked by popularity, the quantity ordered so far (summed
+ * over its products for a category). The index is loaded at startup and kept in
+ * step by the write paths, the database is never touched on lookup.
+ */
+@Service
+public class SuggestionServiceImpl implements SuggestionService {
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionServiceImpl.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    // Values are immutable and replaced as a whole, see put and remove
+    private final ConcurrentSkipListMap<String, Set<String>> index = new ConcurrentSkipListMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        Map<Long, Long> productPopularity = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumQuantityByProduct()) {
+            productPopularity.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<Long, Long> categoryPopularity = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ProductDTO> products = productRepository.streamProductDTOs(null, null)) {
+                products.forEach(product -> {
+                    long popularity = productPopularity.getOrDefault(product.getProductId(), 0L);
+                    put(new Entry(Entry.PRODUCT, product.getProductId(), product.getProductName(),
+                            product.getCategoryId(), popularity));
+                    if (product.getCategoryId() != null) {
+                        categoryPopularity.merge(product.getCategoryId(), popularity, Long::sum);
+                    }
+                });
+            }
+        });
+        for (Category category : categoryRepository.findAll()) {
+            put(new Entry(Entry.CATEGORY, category.getCategoryId(), category.getCategoryName(), null,
+                    categoryPopularity.getOrDefault(category.getCategoryId(), 0L)));
+        }
+        logger.info("Suggestion index loaded with {} names in {} ms", entries.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Popularity is read once per candidate, orders keep changing it while the heap is built
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, Comparator.comparingLong(Candidate::popularity));
+        Set<String> seen = new HashSet<>();
+        ConcurrentNavigableMap<String, Set<String>> matches =
+                index.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+
+        // Every match is ranked, stopping early would drop popular names behind the cut
+        for (Set<String> keys : matches.values()) {
+            for (String key : keys) {
+                Entry entry = entries.get(key);
+                if (entry == null || !seen.add(key)) {
+                    continue;
+                }
+                top.offer(new Candidate(entry, entry.popularity.get()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<SuggestionDTO> suggestions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Candidate candidate = top.poll();
+            Entry entry = candidate.entry();
+            suggestions.add(0, new SuggestionDTO(entry.name, entry.type, entry.id, candidate.popularity()));
+        }
+        return suggestions;
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        String key = Entry.key(Entry.PRODUCT, product.getProductId());
+        Entry previous = entries.get(key);
+        long popularity = previous != null ? previous.popularity.get() : 0;
+        Long categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+        put(new Entry(Entry.PRODUCT, product.getProductId(), product.getProductName(), categoryId, popularity));
+    }
+
+    @Override
+    public void productDeleted(Long productId) {
+        remove(Entry.key(Entry.PRODUCT, productId));
+    }
+
+    @Override
+    public void productOrdered(Long productId, int quantity) {
+        Entry product = entries.get(Entry.key(Entry.PRODUCT, productId));
+        if (product == null) {
+            return;
+        }
+        product.popularity.addAndGet(quantity);
+        if (product.categoryId != null) {
+            Entry category = entries.get(Entry.key(Entry.CATEGORY, product.categoryId));
+            if (category != null) {
+                category.popularity.addAndGet(quantity);
+            }
+        }
+    }
+
+    @Override
+    public void categorySaved(Category category) {
+        String key = Entry.key(Entry.CATEGORY, category.getCategoryId());
+        Entry previous = entries.get(key);
+        long popularity = previous != null ? previous.popularity.get() : 0;
+        put(new Entry(Entry.CATEGORY, category.getCategoryId(), category.getCategoryName(), null, popularity));
+    }
+
+    @Override
+    public void categoryDeleted(Long categoryId) {
+        remove(Entry.key(Entry.CATEGORY, categoryId));
+        // Products are deleted together with their category
+        entries.values().stream()
+                .filter(entry -> entry.type.equals(Entry.PRODUCT) && categoryId.equals(entry.categoryId))
+                .map(Entry::key)
+                .toList()
+                .forEach(this::remove);
+    }
+
+    private void put(Entry entry) {
+        if (entry.name == null) {
+            return;
+        }
+        String key = entry.key();
+        remove(key);
+        entries.put(key, entry);
+        for (String suffix : entry.suffixes) {
+            // Copy on write: the skip list swaps values by compare-and-set and may run the
+            // function more than once, so a set that is in the map is never changed
+            index.compute(suffix, (s, keys) -> {
+                Set<String> updated = keys != null ? new HashSet<>(keys) : new HashSet<>();
+                updated.add(key);
+                return Set.copyOf(updated);
+            });
+        }
+    }
+
+    private void remove(String key) {
+        Entry previous = entries.remove(key);
+        if (previous == null) {
+            return;
+        }
+        for (String suffix : previous.suffixes) {
+            index.computeIfPresent(suffix, (s, keys) -> {
+                Set<String> updated = new HashSet<>(keys);
+                updated.remove(key);
+                return updated.isEmpty() ? null : Set.copyOf(updated);
+            });
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    private record Candidate(Entry entry, long popularity) {
+    }
+
+    private static final class Entry {
+        static final String PRODUCT = "product";
+        static final String CATEGORY = "category";
+
+        final String type;
+        final Long id;
+        final String name;
+        final Long categoryId;
+        final AtomicLong popularity;
+        final List<String> suffixes = new ArrayList<>();
+
+        Entry(String type, Long id, String name, Long categoryId, long popularity) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.categoryId = categoryId;
+            this.popularity = new AtomicLong(popularity);
+
+            String normalized = normalize(name);
+            if (!normalized.isEmpty()) {
+                suffixes.add(normalized);
+                for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+                    suffixes.add(normalized.substring(i + 1));
+                }
+            }
+        }
+
+        String key() {
+            return key(type, id);
+        }
+
+        static String key(String type, Long id) {
+            return type + ":" + id;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.mapper.ProductMapper;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.CartItemRepository;
+import com.ecommerce.project.repositories.CartRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.util.AuthUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind store for active carts, enabled with cart.write-behind.enabled=true.
+ * A cart is loaded once per session of activity and then changed in memory, a
+ * click costs the product lookup only. Changed lines are remembered per cart and
+ * written on the next flush, so ten clicks on the same product become one row
+ * update. Carts idle for cart.write-behind.idle-timeout are dropped once flushed.
+ *
+ * Durability: a change is acknowledged as soon as it is applied in memory and
+ * reaches carts/cart_items at most cart.write-behind.flush-interval later. If the
+ * process dies in between, those changes are lost and the cart comes back as of
+ * its last flush. Checkout and every change made directly in the database
+ * (removing a line, /api/cart/create, product deletion) first write the cart
+ * through and drop it from memory, so orders are always placed from what is
+ * stored. A flush that violates a constraint, e.g. because the product was
+ * deleted in the meantime, discards that cart's pending changes.
+ * The store is per instance, running more than one instance needs requests of
+ * a user routed to the same one.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private final Map<String, ActiveCart> carts = new ConcurrentHashMap<>();
+    private final Map<Long, String> emailsByCartId = new ConcurrentHashMap<>();
+    // Serializes loads of the same user without holding a map bin during the database read
+    private final Object[] loadLocks = Stream.generate(Object::new).limit(64).toArray();
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private AuthUtil authUtil;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.write-behind.idle-timeout}")
+    private Duration idleTimeout;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong discardedCarts = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    public CartDTO addProduct(String email, Product product, int quantity) {
+        return withCart(email, cart -> {
+            if (cart.lines.containsKey(product.getProductId())) {
+                throw new APIException("Product " + product.getProductName() + " already exists in the cart");
+            }
+            Line line = new Line(productMapper.toDTO(product));
+            line.quantity = quantity;
+            line.discount = product.getDiscount();
+            line.productPrice = product.getSpecialPrice();
+            cart.lines.put(product.getProductId(), line);
+            cart.totalPrice += product.getSpecialPrice() * quantity;
+            cart.dirty.add(product.getProductId());
+            return toDTO(cart);
+        });
+    }
+
+    /**
+     * Same rules as the database path in CartServiceImpl: the line takes the
+     * current price, the total moves by the changed quantity only, and a line
+     * that reaches zero is removed.
+     */
+    public CartDTO updateQuantity(String email, Product product, int quantity) {
+        return withCart(email, cart -> {
+            Line line = cart.lines.get(product.getProductId());
+            if (line == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
+            int newQuantity = line.quantity + quantity;
+            if (newQuantity < 0) {
+                throw new APIException("The resulting quantity cannot be negative.");
+            }
+            if (newQuantity == 0) {
+                cart.totalPrice -= line.productPrice * line.quantity;
+                cart.lines.remove(product.getProductId());
+            } else {
+                line.productPrice = product.getSpecialPrice();
+                line.discount = product.getDiscount();
+                line.quantity = newQuantity;
+                cart.totalPrice += line.productPrice * quantity;
+            }
+            cart.dirty.add(product.getProductId());
+            return toDTO(cart);
+        });
+    }
+
+    /**
+     * The user's resident cart, or null if it is not in memory or is not the
+     * cart with this id, the caller then reads it from the database with the
+     * usual ownership check.
+     */
+    public CartDTO getCart(String email, Long cartId) {
+        ActiveCart cart = carts.get(email);
+        if (cart == null || !cart.cartId.equals(cartId)) {
+            return null;
+        }
+        synchronized (cart) {
+            return cart.evicted ? null : toDTO(cart);
+        }
+    }
+
+    /**
+     * Writes the user's pending changes and drops the cart from memory, so the
+     * caller can work on the stored cart. Inside a transaction the cart is
+     * dropped again when it completes, in case a click reloaded it meanwhile.
+     */
+    public void writeThrough(String email) {
+        writeThroughNow(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    writeThroughNow(email);
+                }
+            });
+        }
+    }
+
+    public void writeThroughCart(Long cartId) {
+        String email = emailsByCartId.get(cartId);
+        if (email != null) {
+            writeThrough(email);
+        }
+    }
+
+    public void writeThroughAll() {
+        carts.keySet().forEach(this::writeThroughNow);
+    }
+
+    /**
+     * Keeps resident lines in step with CartRepository.repriceCartsForProduct,
+     * which has already changed the stored rows. Applied after commit so a
+     * rolled back price change does not leak into memory. The line is marked
+     * dirty, a flush of a snapshot taken before the reprice would otherwise
+     * leave the old price and total in the database.
+     */
+    public void productRepriced(Long productId, double price) {
+        Runnable reprice = () -> carts.values().forEach(cart -> {
+            synchronized (cart) {
+                Line line = cart.lines.get(productId);
+                if (line != null) {
+                    cart.totalPrice += (price - line.productPrice) * line.quantity;
+                    line.productPrice = price;
+                    cart.dirty.add(productId);
+                }
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reprice.run();
+                }
+            });
+        } else {
+            reprice.run();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval}")
+    public void flush() {
+        long start = System.currentTimeMillis();
+        long idleBefore = System.nanoTime() - idleTimeout.toNanos();
+        for (Map.Entry<String, ActiveCart> entry : carts.entrySet()) {
+            ActiveCart cart = entry.getValue();
+            synchronized (cart.writeLock) {
+                Map<Long, Line> changes;
+                double totalPrice;
+                synchronized (cart) {
+                    if (cart.evicted) {
+                        continue;
+                    }
+                    if (cart.dirty.isEmpty()) {
+                        if (cart.lastAccess < idleBefore) {
+                            evict(entry.getKey(), cart);
+                        }
+                        continue;
+                    }
+                    changes = snapshot(cart);
+                    totalPrice = cart.totalPrice;
+                }
+                // Written outside the cart lock, clicks are not held up by the database
+                try {
+                    write(cart.cartId, changes, totalPrice);
+                } catch (DataIntegrityViolationException e) {
+                    discard(entry.getKey(), cart, e);
+                } catch (RuntimeException e) {
+                    flushFailures.incrementAndGet();
+                    logger.warn("Could not flush cart {}, retrying on the next flush: {}", cart.cartId, e.getMessage());
+                    synchronized (cart) {
+                        cart.dirty.addAll(changes.keySet());
+                    }
+                }
+            }
+        }
+        flushes.incrementAndGet();
+        lastFlushMillis = System.currentTimeMillis() - start;
+    }
+
+    public Map<String, Object> stats() {
+        long dirtyCarts = carts.values().stream().filter(cart -> {
+            synchronized (cart) {
+                return !cart.dirty.isEmpty();
+            }
+        }).count();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("residentCarts", carts.size());
+        stats.put("dirtyCarts", dirtyCarts);
+        stats.put("flushes", flushes.get());
+        stats.put("rowsWritten", rowsWritten.get());
+        stats.put("flushFailures", flushFailures.get());
+        stats.put("discardedCarts", discardedCarts.get());
+        stats.put("lastFlushMillis", lastFlushMillis);
+        return stats;
+    }
+
+    private <T> T withCart(String email, Function<ActiveCart, T> action) {
+        while (true) {
+            ActiveCart cart = carts.get(email);
+            if (cart == null) {
+                cart = loadOnce(email);
+            }
+            synchronized (cart) {
+                // An evicted cart may still be referenced here, load it again
+                if (!cart.evicted) {
+                    cart.lastAccess = System.nanoTime();
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the cart outside the map and publishes it with putIfAbsent. A second
+     * load of the same user waits on the stripe and finds the cart the first one
+     * put, so a new user never gets two carts created.
+     */
+    private ActiveCart loadOnce(String email) {
+        synchronized (loadLocks[Math.floorMod(email.hashCode(), loadLocks.length)]) {
+            ActiveCart cart = carts.get(email);
+            if (cart != null) {
+                return cart;
+            }
+            ActiveCart loaded = load(email);
+            cart = carts.putIfAbsent(email, loaded);
+            return cart != null ? cart : loaded;
+        }
+    }
+
+    private ActiveCart load(String email) {
+        return transactionTemplate.execute(status -> {
+            Cart cart = cartRepository.findCartByEmail(email);
+            if (cart == null) {
+                cart = new Cart();
+                cart.setTotalPrice(0.00);
+                cart.setUser(authUtil.loggedInUser());
+                cart = cartRepository.save(cart);
+            }
+            ActiveCart active = new ActiveCart(cart.getCartId());
+            for (CartItem item : cart.getCartItems()) {
+                Line line = new Line(productMapper.toDTO(item.getProduct()));
+                line.quantity = item.getQuantity();
+                line.discount = item.getDiscount();
+                line.productPrice = item.getProductPrice();
+                active.lines.put(item.getProduct().getProductId(), line);
+            }
+            active.totalPrice = cart.getTotalPrice();
+            emailsByCartId.put(cart.getCartId(), email);
+            return active;
+        });
+    }
+
+    private void writeThroughNow(String email) {
+        ActiveCart cart = carts.get(email);
+        if (cart == null) {
+            return;
+        }
+        synchronized (cart.writeLock) {
+            synchronized (cart) {
+                if (cart.evicted) {
+                    return;
+                }
+                if (!cart.dirty.isEmpty()) {
+                    Map<Long, Line> changes = snapshot(cart);
+                    try {
+                        write(cart.cartId, changes, cart.totalPrice);
+                    } catch (DataIntegrityViolationException e) {
+                        discard(email, cart, e);
+                        return;
+                    } catch (RuntimeException e) {
+                        cart.dirty.addAll(changes.keySet());
+                        throw e;
+                    }
+                }
+                evict(email, cart);
+            }
+        }
+    }
+
+    /**
+     * Copies the changed lines and clears the dirty set, a removed line maps to
+     * null. Must be called holding the cart's lock.
+     */
+    private Map<Long, Line> snapshot(ActiveCart cart) {
+        Map<Long, Line> changes = new HashMap<>();
+        for (Long productId : cart.dirty) {
+            Line line = cart.lines.get(productId);
+            changes.put(productId, line != null ? line.copy() : null);
+        }
+        cart.dirty.clear();
+        return changes;
+    }
+
+    /**
+     * Applies the changed lines of one cart in its own transaction, independent
+     * of any transaction the caller is in: one select for the affected rows,
+     * then batched deletes, updates and inserts, and the cart total.
+     */
+    private void write(Long cartId, Map<Long, Line> changes, double totalPrice) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> {
+            Map<Long, CartItem> stored = new HashMap<>();
+            for (CartItem item : cartItemRepository.findByCartIdAndProductIds(cartId, changes.keySet())) {
+                stored.putIfAbsent(item.getProduct().getProductId(), item);
+            }
+
+            List<CartItem> removed = new ArrayList<>();
+            List<CartItem> saved = new ArrayList<>();
+            for (Map.Entry<Long, Line> change : changes.entrySet()) {
+                CartItem item = stored.get(change.getKey());
+                Line line = change.getValue();
+                if (line == null) {
+                    if (item != null) {
+                        removed.add(item);
+                    }
+                    continue;
+                }
+                if (item == null) {
+                    item = new CartItem();
+                    item.setCart(cartRepository.getReferenceById(cartId));
+                    item.setProduct(productRepository.getReferenceById(change.getKey()));
+                }
+                item.setQuantity(line.quantity);
+                item.setDiscount(line.discount);
+                item.setProductPrice(line.productPrice);
+                saved.add(item);
+            }
+
+            cartItemRepository.deleteAllInBatch(removed);
+            cartItemRepository.saveAll(saved);
+            cartRepository.updateTotalPrice(cartId, totalPrice);
+            rowsWritten.addAndGet(removed.size() + saved.size() + 1);
+        });
+    }
+
+    private void discard(String email, ActiveCart cart, RuntimeException e) {
+        synchronized (cart) {
+            discardedCarts.incrementAndGet();
+            logger.warn("Discarded pending changes of cart {}: {}", cart.cartId, e.getMessage());
+            evict(email, cart);
+        }
+    }
+
+    private void evict(String email, ActiveCart cart) {
+        cart.evicted = true;
+        carts.remove(email, cart);
+        emailsByCartId.remove(cart.cartId, email);
+    }
+
+    private CartDTO toDTO(ActiveCart cart) {
+        List<ProductDTO> products = new ArrayList<>(cart.lines.size());
+        for (Line line : cart.lines.values()) {
+            ProductDTO productDTO = new ProductDTO();
+            BeanUtils.copyProperties(line.product, productDTO);
+            productDTO.setQuantity(line.quantity);
+            products.add(productDTO);
+        }
+        return new CartDTO(cart.cartId, cart.totalPrice, products);
+    }
+
+    private static final class ActiveCart {
+        private final Long cartId;
+        // Held while a snapshot is written so an older snapshot never lands after a newer one.
+        // Taken before the cart's own monitor, which guards the lines.
+        private final Object writeLock = new Object();
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        // Product ids whose line changed or was removed since the last flush
+        private final Set<Long> dirty = new HashSet<>();
+        private double totalPrice;
+        private long lastAccess = System.nanoTime();
+        private boolean evicted;
+
+        private ActiveCart(Long cartId) {
+            this.cartId = cartId;
+        }
+    }
+
+    private static final class Line {
+        // Product as it was when the line was loaded or added, for the response only
+        private final ProductDTO product;
+        private int quantity;
+        private double discount;
+        private double productPrice;
+
+        private Line(ProductDTO product) {
+            this.product = product;
+        }
+
+        private Line copy() {
+            Line copy = new Line(product);
+            copy.quantity = quantity;
+            copy.discount = discount;
+            copy.productPrice = productPrice;
+            return copy;
+        }
+    }
+}
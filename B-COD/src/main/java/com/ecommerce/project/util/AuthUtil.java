@@ -2,6 +2,7 @@ package com.ecommerce.project.util;
 
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,6 +15,20 @@ public class AuthUtil {
     @Autowired
     UserRepository userRepository;
 
+    // Name from the security context only, for callers that must not hit the database
+    public String loggedInUserName(){
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    // Email carried by the principal AuthTokenFilter already loaded, no extra query
+    public String principalEmail(){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getEmail();
+        }
+        return loggedInEmail();
+    }
+
     public String loggedInEmail(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User user = userRepository.findByUserName(authentication.getName())
@@ -0,0 +1,27 @@
+package com.ecommerce.project.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Two-level directory layout of the image store. Content digests and legacy
+ * UUID names live under "ab/cd/abcd...". Variants and compressed copies share
+ * the prefix of their original, so they land in the same directory. Any other
+ * name stays at the top level, including default.png, which happens to start
+ * with four hex characters. Product rows keep the bare name, the layout is
+ * derived.
+ */
+public final class ImageLayout {
+    private static final Pattern SHARDED = Pattern.compile(
+            "^([0-9a-f]{64}|[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})"
+                    + "(_(thumb|card|detail))?(\\.[A-Za-z0-9]+){0,2}$");
+
+    private ImageLayout() {
+    }
+
+    public static String relativePath(String imageName) {
+        if (!SHARDED.matcher(imageName).matches()) {
+            return imageName;
+        }
+        return imageName.substring(0, 2) + "/" + imageName.substring(2, 4) + "/" + imageName;
+    }
+}
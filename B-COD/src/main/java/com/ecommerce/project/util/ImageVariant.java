@@ -0,0 +1,60 @@
+package com.ecommerce.project.util;
+
+import java.util.List;
+
+/**
+ * Fixed-width renditions generated next to every product image. A variant of
+ * "abc.png" is stored as "abc_thumb.jpg", always JPEG since these are photos
+ * shown at small sizes. Images are cached as immutable, so a variant URL only
+ * ever answers with the original when the original cannot be decoded and no
+ * variant will ever exist.
+ */
+public enum ImageVariant {
+    THUMB("thumb", 160),
+    CARD("card", 400),
+    DETAIL("detail", 960);
+
+    private static final String EXTENSION = ".jpg";
+    private static final List<String> ORIGINAL_EXTENSIONS =
+            List.of(".jpg", ".jpeg", ".png", ".gif", ".bmp", ".webp", ".JPG", ".JPEG", ".PNG");
+
+    private final String suffix;
+    private final int width;
+
+    ImageVariant(String suffix, int width) {
+        this.suffix = suffix;
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public String fileName(String original) {
+        int dot = original.lastIndexOf('.');
+        String base = dot > 0 ? original.substring(0, dot) : original;
+        return base + "_" + suffix + EXTENSION;
+    }
+
+    /**
+     * Maps a variant file name back to its variant, or null when the name is
+     * not a variant.
+     */
+    public static ImageVariant of(String fileName) {
+        for (ImageVariant variant : values()) {
+            if (fileName.endsWith("_" + variant.suffix + EXTENSION)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Names the original of a variant may have. The variant name does not keep
+     * the original extension, so each supported one is tried.
+     */
+    public List<String> originalCandidates(String variantFileName) {
+        String base = variantFileName.substring(0, variantFileName.length() - ("_" + suffix + EXTENSION).length());
+        return ORIGINAL_EXTENSIONS.stream().map(extension -> base + extension).toList();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.exceptions.APIException;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Opaque position in a product listing, made of the sort key and the productId
+ * of the last row a client has seen. The productId keeps the order unique when
+ * several products share the same sort key.
+ */
+public class KeysetCursor {
+    public static final Set<String> SORTABLE_FIELDS =
+            Set.of("productId", "productName", "price", "discount", "specialPrice");
+
+    private static final String SEPARATOR = "\n";
+
+    private final String sortBy;
+    private final boolean ascending;
+    private final Long productId;
+    private final String sortValue;
+
+    private KeysetCursor(String sortBy, boolean ascending, Long productId, String sortValue) {
+        this.sortBy = sortBy;
+        this.ascending = ascending;
+        this.productId = productId;
+        this.sortValue = sortValue;
+    }
+
+    /**
+     * Builds the cursor pointing just after the given row. The row can be a
+     * Product or a ProductDTO, both expose the sortable properties.
+     */
+    public static KeysetCursor after(Object row, String sortBy, String sortOrder) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(row);
+        Long productId = (Long) wrapper.getPropertyValue("productId");
+        Object value = wrapper.getPropertyValue(sortBy);
+        return new KeysetCursor(sortBy, sortOrder.equalsIgnoreCase("asc"), productId, String.valueOf(value));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 4);
+            if (parts.length != 4 || !SORTABLE_FIELDS.contains(parts[0])) {
+                throw new APIException("Invalid cursor: " + cursor);
+            }
+            return new KeysetCursor(parts[0], parts[1].equals("asc"), Long.valueOf(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new APIException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + (ascending ? "asc" : "desc") + SEPARATOR + productId + SEPARATOR + sortValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean matches(String sortBy, String sortOrder) {
+        return this.sortBy.equals(sortBy) && this.ascending == sortOrder.equalsIgnoreCase("asc");
+    }
+
+    public Object sortValueAs(Class<?> type) {
+        if (type == Long.class || type == long.class) {
+            return Long.valueOf(sortValue);
+        }
+        if (type == Integer.class || type == int.class) {
+            return Integer.valueOf(sortValue);
+        }
+        if (type == Double.class || type == double.class) {
+            return Double.valueOf(sortValue);
+        }
+        return sortValue;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
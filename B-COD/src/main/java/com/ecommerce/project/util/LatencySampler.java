@@ -0,0 +1,49 @@
+package com.ecommerce.project.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent durations in a ring buffer for percentile reporting.
+ * Recording is a counter increment and an array store, reading sorts a copy,
+ * so snapshots are meant for stats endpoints and not the request path. A
+ * snapshot may miss a sample being written concurrently, which does not
+ * matter for percentiles.
+ */
+public class LatencySampler {
+    private final long[] samples;
+    private final AtomicLong count = new AtomicLong();
+
+    public LatencySampler(int size) {
+        this.samples = new long[size];
+    }
+
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples[(int) (index % samples.length)] = nanos;
+    }
+
+    public Map<String, Object> snapshot() {
+        int size = (int) Math.min(count.get(), samples.length);
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", count.get());
+        snapshot.put("sampled", size);
+        snapshot.put("p50Micros", percentile(sorted, 0.50));
+        snapshot.put("p99Micros", percentile(sorted, 0.99));
+        snapshot.put("maxMicros", size == 0 ? 0 : sorted[size - 1] / 1000);
+        return snapshot;
+    }
+
+    private long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000;
+    }
+}
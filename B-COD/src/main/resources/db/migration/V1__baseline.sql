@@ -0,0 +1,113 @@
+-- Schema as previously generated by hibernate ddl-auto=update.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE roles (
+    role_id   integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    role_name varchar(20) CHECK (role_name IN ('ROLE_USER', 'ROLE_SELLER', 'ROLE_ADMIN'))
+);
+
+CREATE TABLE users (
+    user_id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username             varchar(20)  NOT NULL,
+    email                varchar(50)  NOT NULL,
+    password             varchar(120) NOT NULL,
+    nim                  varchar(10),
+    phone                varchar(12),
+    jurusan              varchar(255),
+    is_verified_binusian boolean,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_nim UNIQUE (nim)
+);
+
+CREATE TABLE user_role (
+    user_id bigint  NOT NULL REFERENCES users (user_id),
+    role_id integer NOT NULL REFERENCES roles (role_id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE addresses (
+    address_id    bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    street        varchar(255),
+    building_name varchar(255),
+    city          varchar(255),
+    state         varchar(255),
+    country       varchar(255),
+    pincode       varchar(255),
+    user_id       bigint REFERENCES users (user_id)
+);
+
+CREATE TABLE categories (
+    category_id   bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    category_name varchar(255)
+);
+
+CREATE TABLE products (
+    product_id    bigint           NOT NULL PRIMARY KEY,
+    product_name  varchar(255),
+    image         varchar(255),
+    description   varchar(255),
+    quantity      integer,
+    price         double precision NOT NULL,
+    discount      double precision NOT NULL,
+    special_price double precision NOT NULL,
+    category_id   bigint REFERENCES categories (category_id),
+    seller_id     bigint REFERENCES users (user_id)
+);
+
+CREATE TABLE carts (
+    cart_id     bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    total_price double precision,
+    user_id     bigint REFERENCES users (user_id),
+    CONSTRAINT uk_carts_user UNIQUE (user_id)
+);
+
+CREATE TABLE cart_items (
+    cart_item_id  bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    quantity      integer,
+    discount      double precision NOT NULL,
+    product_price double precision NOT NULL,
+    cart_id       bigint REFERENCES carts (cart_id),
+    product_id    bigint REFERENCES products (product_id)
+);
+
+CREATE TABLE cod_location (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        varchar(100),
+    building    varchar(255),
+    floor       varchar(255),
+    description varchar(500),
+    active      boolean NOT NULL
+);
+
+CREATE TABLE payments (
+    payment_id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    payment_method      varchar(255),
+    pg_payment_id       varchar(255),
+    pg_status           varchar(255),
+    pg_response_message varchar(255),
+    pg_name             varchar(255)
+);
+
+CREATE TABLE orders (
+    order_id        bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email           varchar(255) NOT NULL,
+    order_date      date,
+    total_amount    double precision,
+    order_status    varchar(255),
+    payment_id      bigint REFERENCES payments (payment_id),
+    address_id      bigint REFERENCES addresses (address_id),
+    cod_location_id bigint REFERENCES cod_location (id),
+    CONSTRAINT uk_orders_payment UNIQUE (payment_id)
+);
+
+CREATE TABLE order_items (
+    order_item_id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    quantity              integer,
+    discount              double precision NOT NULL,
+    ordered_product_price double precision NOT NULL,
+    order_id              bigint REFERENCES orders (order_id),
+    product_id            bigint REFERENCES products (product_id)
+);
@@ -0,0 +1,31 @@
+-- Indexes for the lookups done by the repositories. users.username, users.email,
+-- users.nim and carts.user_id are already covered by their unique constraints.
+-- IF NOT EXISTS because older databases may already have the search indexes,
+-- they used to be created at application startup.
+
+-- CartItemRepository.findCartItemByProductIdAndCartId, deleteAllByCartId
+CREATE INDEX IF NOT EXISTS idx_cart_items_cart_product ON cart_items (cart_id, product_id);
+-- CartRepository.findCartsByProductId, repriceCartsForProduct, CartItemRepository.updateProductPrice
+CREATE INDEX IF NOT EXISTS idx_cart_items_product ON cart_items (product_id);
+
+-- Seller and category listings, ProductRepository.findProductNamesByCategoryId
+CREATE INDEX IF NOT EXISTS idx_products_seller ON products (seller_id);
+CREATE INDEX IF NOT EXISTS idx_products_category ON products (category_id);
+
+-- Must match the document expression in SearchFunctionContributor
+CREATE INDEX IF NOT EXISTS idx_products_full_text ON products USING GIN
+    (to_tsvector('english', coalesce(product_name, '') || ' ' || coalesce(description, '')));
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING GIN (product_name gin_trgm_ops);
+
+-- CategoryRepository.findByCategoryName
+CREATE INDEX IF NOT EXISTS idx_categories_name ON categories (category_name);
+
+-- CodLocationRepository.findByActiveTrue, only the active rows are ever looked up
+CREATE INDEX IF NOT EXISTS idx_cod_location_active ON cod_location (id) WHERE active;
+
+-- Foreign keys followed when loading orders, addresses and popularity totals
+CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product ON order_items (product_id);
+CREATE INDEX IF NOT EXISTS idx_addresses_user ON addresses (user_id);
@@ -0,0 +1,5 @@
+-- Version columns for optimistic locking of carts, cart lines and product stock.
+-- A constant default is a catalog-only change on PostgreSQL 11+, existing rows are not rewritten.
+ALTER TABLE products ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE carts ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE cart_items ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+-- cart_items ids move from IDENTITY to a pooled sequence (allocation 50, like products_seq)
+-- so Hibernate knows ids before the insert and can send cart lines as JDBC batches.
+CREATE SEQUENCE cart_items_seq INCREMENT BY 50;
+-- Hibernate treats each value as the top of a block of 50, start above the existing ids
+SELECT setval('cart_items_seq', COALESCE((SELECT max(cart_item_id) FROM cart_items), 0) + 50);
+ALTER TABLE cart_items ALTER COLUMN cart_item_id DROP IDENTITY IF EXISTS;
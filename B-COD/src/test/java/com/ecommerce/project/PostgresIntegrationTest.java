@@ -0,0 +1,94 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base of the tests that need the real database: Flyway migrations, native
+ * queries, pg_trgm and the planner. One container is started for the whole
+ * run and shared by every subclass, which also share one application context
+ * as long as they do not add properties of their own. Skipped without Docker.
+ * The database is not reset between tests, so every test creates its own
+ * users, categories and products with unique names.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "concurrency.retry.max-attempts=50"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        postgres.start();
+    }
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected CategoryRepository categoryRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    protected static String uniqueName(String prefix) {
+        return prefix + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    protected User createUser() {
+        String userName = uniqueName("user");
+        return userRepository.save(new User(userName, userName + "@example.com", "password"));
+    }
+
+    protected Category createCategory() {
+        Category category = new Category();
+        category.setCategoryName(uniqueName("Category "));
+        return categoryRepository.save(category);
+    }
+
+    protected Product createProduct(Category category, User seller, String productName, double price, int quantity) {
+        Product product = new Product();
+        product.setProductName(productName);
+        product.setDescription("Description of " + productName);
+        product.setImage("default.png");
+        product.setQuantity(quantity);
+        product.setPrice(price);
+        product.setDiscount(0);
+        product.setSpecialPrice(price);
+        product.setCategory(category);
+        product.setUser(seller);
+        return productRepository.save(product);
+    }
+
+    /**
+     * Signs the user in on the calling thread only, the way AuthTokenFilter does
+     * for a request. Worker threads of a test have to call it themselves.
+     */
+    protected static void authenticate(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUserName(), null, List.of()));
+    }
+}
@@ -0,0 +1,147 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Address;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.OrderItem;
+import com.ecommerce.project.model.Payment;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hand-written mappers against the ModelMapper configuration they replaced,
+ * on a product and on an order with ten lines. Not a test, surefire skips it.
+ * Run main() on the test classpath after mvn test-compile, which also runs the
+ * JMH annotation processor. Reports throughput and time per call, and through
+ * the GC profiler the bytes allocated per call (gc.alloc.rate.norm, B/op).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private OrderMapper orderMapper;
+
+    private Product product;
+    private ProductDTO productDTO;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        productMapper = new ProductMapper();
+        orderMapper = new OrderMapper();
+        ReflectionTestUtils.setField(orderMapper, "productMapper", productMapper);
+
+        Category category = new Category();
+        category.setCategoryId(3L);
+        category.setCategoryName("Electronics");
+        product = product(1L, category);
+        productDTO = productMapper.toDTO(product);
+
+        order = new Order();
+        order.setOrderId(7L);
+        order.setEmail("user1@example.com");
+        order.setOrderDate(LocalDate.of(2024, 5, 1));
+        order.setOrderStatus("Order Accepted !");
+        List<OrderItem> orderItems = new ArrayList<>();
+        double total = 0;
+        for (long i = 1; i <= 10; i++) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrderItemId(i);
+            orderItem.setProduct(product(i, category));
+            orderItem.setQuantity(2);
+            orderItem.setDiscount(10);
+            orderItem.setOrderedProductPrice(90.0);
+            orderItems.add(orderItem);
+            total += 180.0;
+        }
+        order.setOrderItems(orderItems);
+        order.setTotalAmount(total);
+        Payment payment = new Payment();
+        payment.setPaymentId(5L);
+        payment.setPaymentMethod("COD");
+        payment.setPgStatus("pending");
+        order.setPayment(payment);
+        Address address = new Address();
+        address.setAddressId(11L);
+        order.setAddress(address);
+    }
+
+    @Benchmark
+    public ProductDTO productToDTOHandWritten() {
+        return productMapper.toDTO(product);
+    }
+
+    @Benchmark
+    public ProductDTO productToDTOModelMapper() {
+        return modelMapper.map(product, ProductDTO.class);
+    }
+
+    @Benchmark
+    public Product productToEntityHandWritten() {
+        return productMapper.toEntity(productDTO);
+    }
+
+    @Benchmark
+    public Product productToEntityModelMapper() {
+        return modelMapper.map(productDTO, Product.class);
+    }
+
+    @Benchmark
+    public OrderDTO orderToDTOHandWritten() {
+        return orderMapper.toDTO(order);
+    }
+
+    @Benchmark
+    public OrderDTO orderToDTOModelMapper() {
+        return modelMapper.map(order, OrderDTO.class);
+    }
+
+    private static Product product(long productId, Category category) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName("Product " + productId);
+        product.setImage("default.png");
+        product.setDescription("Description of product " + productId);
+        product.setQuantity(50);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setCategory(category);
+        return product;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAIN of the SQL behind the hot repository queries, checked against the
+ * indexes of V2__query_indexes.sql. The test tables are tiny and a sequential
+ * scan would win on cost, so sequential scans are switched off for the transaction:
+ * the planner then only falls back to one when no index can serve the query.
+ */
+class QueryPlanTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void cartByEmailUsesTheEmailAndCartUserIndexes() {
+        // CartRepository.findCartByEmail, findCartByEmailAndCartId
+        assertIndexScan("SELECT c.* FROM carts c JOIN users u ON u.user_id = c.user_id WHERE u.email = 'a@example.com'",
+                "uk_users_email", "uk_carts_user");
+        assertIndexScan("SELECT c.* FROM carts c JOIN users u ON u.user_id = c.user_id "
+                + "WHERE u.email = 'a@example.com' AND c.cart_id = 1");
+    }
+
+    @Test
+    void cartsByProductUseTheCartItemsProductIndex() {
+        // CartRepository.findCartsByProductId
+        assertIndexScan("SELECT c.*, ci.* FROM carts c JOIN cart_items ci ON ci.cart_id = c.cart_id "
+                + "WHERE ci.product_id = 1", "idx_cart_items_product");
+        // CartRepository.repriceCartsForProduct
+        assertIndexScan("UPDATE carts c SET total_price = c.total_price + "
+                + "(SELECT SUM((2.0 - ci.product_price) * ci.quantity) FROM cart_items ci "
+                + "WHERE ci.cart_id = c.cart_id AND ci.product_id = 1), version = c.version + 1 "
+                + "WHERE EXISTS (SELECT 1 FROM cart_items ci WHERE ci.cart_id = c.cart_id AND ci.product_id = 1)",
+                "idx_cart_items_product");
+    }
+
+    @Test
+    void cartItemLookupsUseTheCartItemsIndexes() {
+        // CartItemRepository.findCartItemByProductIdAndCartId, deleteCartItemByProductIdAndCartId
+        // Either cart_items index serves these, which one the planner takes depends on the statistics
+        assertIndexScan("SELECT * FROM cart_items WHERE cart_id = 1 AND product_id = 2", "idx_cart_items_");
+        // CartItemRepository.findByCartIdAndProductIds
+        assertIndexScan("SELECT * FROM cart_items WHERE cart_id = 1 AND product_id IN (2, 3, 4)", "idx_cart_items_");
+        // CartItemRepository.updateProductPrice
+        assertIndexScan("UPDATE cart_items SET product_price = 2.0, version = version + 1 WHERE product_id = 1",
+                "idx_cart_items_product");
+    }
+
+    @Test
+    void productLookupsUseTheProductIndexes() {
+        // ProductRepository.findProductNamesByCategoryId, category listings
+        assertIndexScan("SELECT lower(product_name) FROM products WHERE category_id = 1", "idx_products_category");
+        // Seller listings
+        assertIndexScan("SELECT * FROM products WHERE seller_id = 1", "idx_products_seller");
+        // Keyword search, the expression of SearchFunctionContributor
+        assertIndexScan("SELECT * FROM products WHERE to_tsvector('english', coalesce(product_name, '') || ' ' "
+                + "|| coalesce(description, '')) @@ websearch_to_tsquery('english', 'gizmo')", "idx_products_full_text");
+        // Fuzzy fallback
+        assertIndexScan("SELECT * FROM products WHERE 'gizmo' <% product_name", "idx_products_name_trgm");
+    }
+
+    @Test
+    void userLookupsUseTheUniqueIndexes() {
+        // UserRepository.findByUserName, existsByUserName
+        assertIndexScan("SELECT * FROM users WHERE username = 'user1'", "uk_users_username");
+        // UserRepository.existsByEmail
+        assertIndexScan("SELECT 1 FROM users WHERE email = 'user1@example.com' LIMIT 1", "uk_users_email");
+    }
+
+    private void assertIndexScan(String sql, String... indexes) {
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            String explained = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            // EXPLAIN of an UPDATE does not run it, roll back anyway
+            status.setRollbackOnly();
+            return explained;
+        });
+        assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan in\n" + plan);
+        for (String index : indexes) {
+            assertTrue(plan.contains(index), () -> index + " not used in\n" + plan);
+        }
+    }
+}
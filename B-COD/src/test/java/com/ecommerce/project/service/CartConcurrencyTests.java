@@ -0,0 +1,127 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.CartItemRepository;
+import com.ecommerce.project.repositories.CartRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many requests of the same user changing one cart at once. Every request that
+ * reports success must be visible in the stored cart, and the stored total must
+ * match the stored lines.
+ */
+class CartConcurrencyTests extends PostgresIntegrationTest {
+    private static final int THREADS = 8;
+    private static final int CLICKS_PER_THREAD = 25;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentQuantityChangesOfOneLineAreNotLost() throws Exception {
+        User user = createUser();
+        Category category = createCategory();
+        Product product = createProduct(category, user, uniqueName("Product "), 10.0, 100_000);
+        authenticate(user);
+        cartService.addProductToCart(product.getProductId(), 1);
+
+        runConcurrently(THREADS, thread -> {
+            authenticate(user);
+            for (int click = 0; click < CLICKS_PER_THREAD; click++) {
+                cartService.updateProductQuantityInCart(product.getProductId(), 1);
+            }
+        });
+
+        int expectedQuantity = 1 + THREADS * CLICKS_PER_THREAD;
+        Cart cart = cartRepository.findCartByEmail(user.getEmail());
+        CartItem line = cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), product.getProductId());
+        assertEquals(expectedQuantity, line.getQuantity());
+        assertEquals(10.0 * expectedQuantity, cart.getTotalPrice(), 0.001);
+    }
+
+    @Test
+    void concurrentAddsOfDifferentProductsAllReachTheCart() throws Exception {
+        User user = createUser();
+        Category category = createCategory();
+        Product first = createProduct(category, user, uniqueName("Product "), 5.0, 100);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            products.add(createProduct(category, user, uniqueName("Product "), 1.0 + i, 100));
+        }
+        // The cart row exists before the race, creating it is not what is tested here
+        authenticate(user);
+        cartService.addProductToCart(first.getProductId(), 2);
+
+        runConcurrently(THREADS, thread -> {
+            authenticate(user);
+            cartService.addProductToCart(products.get(thread).getProductId(), 3);
+        });
+
+        double expectedTotal = 5.0 * 2 + products.stream().mapToDouble(product -> product.getSpecialPrice() * 3).sum();
+        transactionTemplate.executeWithoutResult(status -> {
+            Cart cart = cartRepository.findCartByEmail(user.getEmail());
+            assertEquals(THREADS + 1, cart.getCartItems().size());
+            double linesTotal = cart.getCartItems().stream()
+                    .mapToDouble(item -> item.getProductPrice() * item.getQuantity())
+                    .sum();
+            assertEquals(expectedTotal, linesTotal, 0.001);
+            assertEquals(expectedTotal, cart.getTotalPrice(), 0.001);
+        });
+    }
+
+    /**
+     * Starts all workers at the same moment and waits for them. A worker that
+     * throws, e.g. because its retries ran out, fails the test.
+     */
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OptimisticRetryExecutorTests {
+    private static final long BACKOFF_MILLIS = 10;
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OptimisticRetryExecutor executor = new OptimisticRetryExecutor();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        ReflectionTestUtils.setField(executor, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(executor, "maxAttempts", 5);
+        ReflectionTestUtils.setField(executor, "backoffMillis", BACKOFF_MILLIS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void retriesConflictsInFreshTransactionsUntilTheActionSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        long start = System.nanoTime();
+        String result = executor.execute("addProductToCart", () -> {
+            if (attempts.incrementAndGet() <= 3) {
+                throw new OptimisticLockingFailureException("cart changed");
+            }
+            return "done";
+        });
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("done", result);
+        assertEquals(4, attempts.get());
+        verify(transactionManager, times(4)).getTransaction(any());
+        verify(transactionManager, times(3)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(counters(1, 3, 3, 0), executor.stats().get("addProductToCart"));
+        // Three sleeps of at most 10, 20 and 40 ms, plus slack for a busy machine
+        assertTrue(elapsedMillis < 70 + 1000, "backed off for " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(APIException.class, () -> executor.execute("updateProductQuantityInCart", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockException("cart changed");
+        }));
+
+        assertEquals(5, attempts.get());
+        verify(transactionManager, times(5)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertEquals(counters(1, 5, 4, 1), executor.stats().get("updateProductQuantityInCart"));
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(APIException.class, () -> executor.execute("deleteProductFromCart", () -> {
+            attempts.incrementAndGet();
+            throw new APIException("Product not available in the cart");
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(counters(1, 0, 0, 0), executor.stats().get("deleteProductFromCart"));
+    }
+
+    @Test
+    void joinsAnActiveTransactionAndLeavesTheRetryToTheOuterCaller() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> executor.execute("placeOrder", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("product changed");
+        }));
+
+        assertEquals(1, attempts.get());
+        verify(transactionManager, never()).getTransaction(any());
+        assertTrue(executor.stats().isEmpty());
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToSixtyFourTimesTheBase() {
+        assertEquals(BACKOFF_MILLIS, executor.backoffBound(1));
+        assertEquals(2 * BACKOFF_MILLIS, executor.backoffBound(2));
+        assertEquals(4 * BACKOFF_MILLIS, executor.backoffBound(3));
+        assertEquals(64 * BACKOFF_MILLIS, executor.backoffBound(7));
+        assertEquals(64 * BACKOFF_MILLIS, executor.backoffBound(20));
+    }
+
+    private static Map<String, Object> counters(long calls, long conflicts, long retries, long exhausted) {
+        return Map.of("calls", calls, "conflicts", conflicts, "retries", retries, "exhausted", exhausted);
+    }
+}
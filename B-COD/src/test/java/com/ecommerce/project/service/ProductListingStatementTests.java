@@ -0,0 +1,79 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CountStrategy;
+import com.ecommerce.project.payload.ProductResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Number of statements one listing page costs. Pages are read as DTO
+ * projections, so a page is one select plus the count, and nothing is loaded
+ * per row. A regression to entity loading shows up here as N extra selects.
+ */
+class ProductListingStatementTests extends PostgresIntegrationTest {
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category category;
+
+    @BeforeEach
+    void createCatalog() {
+        User seller = createUser();
+        category = createCategory();
+        // More than a page, so the exact count is not free
+        for (int i = 0; i < 3 * PAGE_SIZE; i++) {
+            createProduct(category, seller, uniqueName("Gizmo "), 10.0 + i, 5);
+        }
+    }
+
+    @Test
+    void getAllProductsPageIsOneSelectAndOneCount() {
+        ProductResponse page = countStatements(2, () -> productService.getAllProducts(
+                0, PAGE_SIZE, "productId", "asc", null, null, null, CountStrategy.EXACT, false));
+        assertEquals(PAGE_SIZE, page.getContent().size());
+    }
+
+    @Test
+    void searchByCategoryPageIsCategoryLookupSelectAndCount() {
+        ProductResponse page = countStatements(3, () -> productService.searchByCategory(
+                category.getCategoryId(), 0, PAGE_SIZE, "productId", "asc", null, CountStrategy.EXACT));
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(3 * PAGE_SIZE, page.getTotalElements());
+    }
+
+    @Test
+    void searchProductByKeywordPageIsOneSelectAndOneCount() {
+        ProductResponse page = countStatements(2, () -> productService.searchProductByKeyword(
+                "gizmo", 0, PAGE_SIZE, "productId", "asc", CountStrategy.EXACT));
+        assertEquals(PAGE_SIZE, page.getContent().size());
+    }
+
+    private ProductResponse countStatements(long expected, Supplier<ProductResponse> listing) {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ProductResponse page = listing.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return page;
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.ProductDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * updateProduct reprices every cart holding the product with
+ * CartRepository.repriceCartsForProduct and CartItemRepository.updateProductPrice.
+ * Ten thousand carts, each also holding a second product, are repriced twice
+ * in a row. The totals are moved by the line difference, so the second change
+ * only comes out right if the first one left lines and totals consistent.
+ * Repricing costs the same statements and entity loads as for a product in no
+ * cart at all, nothing is read per cart.
+ */
+class ProductRepricingTests extends PostgresIntegrationTest {
+    private static final int CARTS = 10_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void repricesTenThousandCarts() {
+        User seller = createUser();
+        Category category = createCategory();
+        Product repriced = createProduct(category, seller, uniqueName("Repriced "), 10.0, 1_000_000);
+        Product other = createProduct(category, seller, uniqueName("Other "), 1.0, 1_000_000);
+        Product unsold = createProduct(category, seller, uniqueName("Unsold "), 10.0, 1_000_000);
+        String prefix = uniqueName("r");
+        createCarts(prefix, repriced, other);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        productService.updateProduct(unsold.getProductId(), priceChange(unsold, 15.0));
+        long baselineStatements = statistics.getPrepareStatementCount();
+        long baselineLoads = statistics.getEntityLoadCount() + statistics.getCollectionLoadCount();
+
+        for (double price : new double[] {15.0, 12.0}) {
+            statistics.clear();
+            productService.updateProduct(repriced.getProductId(), priceChange(repriced, price));
+            assertEquals(baselineStatements, statistics.getPrepareStatementCount());
+            assertEquals(baselineLoads, statistics.getEntityLoadCount() + statistics.getCollectionLoadCount());
+        }
+
+        assertEquals(CARTS, count("SELECT count(*) FROM cart_items WHERE product_id = ? AND product_price = 12.0",
+                repriced.getProductId()));
+        assertEquals(CARTS, count("SELECT count(*) FROM cart_items WHERE product_id = ? AND product_price = 1.0",
+                other.getProductId()));
+        // Two lines of 12.0 plus one of 1.0, and one version bump per repricing
+        assertEquals(CARTS, count("SELECT count(*) FROM carts c JOIN users u ON u.user_id = c.user_id "
+                + "WHERE u.username LIKE ? AND abs(c.total_price - 25.0) < 1e-6 AND c.version = 2", prefix + "%"));
+    }
+
+    @Test
+    void repricesACartWithTwoLinesOfTheProductOnce() {
+        User seller = createUser();
+        Category category = createCategory();
+        Product product = createProduct(category, seller, uniqueName("Doubled "), 10.0, 1_000_000);
+        String username = uniqueName("d");
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES (?, ? || '@example.com', 'password')",
+                username, username);
+        jdbcTemplate.update("INSERT INTO carts (total_price, user_id) "
+                + "SELECT 2 * 10.0 + 3 * 10.0, user_id FROM users WHERE username = ?", username);
+        for (int quantity : new int[] {2, 3}) {
+            jdbcTemplate.update("INSERT INTO cart_items (cart_item_id, quantity, discount, product_price, cart_id, product_id) "
+                    + "SELECT nextval('cart_items_seq'), ?, 0, 10.0, c.cart_id, ? FROM carts c "
+                    + "JOIN users u ON u.user_id = c.user_id WHERE u.username = ?",
+                    quantity, product.getProductId(), username);
+        }
+
+        productService.updateProduct(product.getProductId(), priceChange(product, 12.0));
+
+        assertEquals(1, count("SELECT count(*) FROM carts c JOIN users u ON u.user_id = c.user_id "
+                + "WHERE u.username = ? AND abs(c.total_price - 60.0) < 1e-6 AND c.version = 1", username));
+    }
+
+    /**
+     * Inserts the users, carts and lines set-based, going through the services
+     * would make the setup take longer than the repricing being tested.
+     */
+    private void createCarts(String prefix, Product repriced, Product other) {
+        jdbcTemplate.update("INSERT INTO users (username, email, password) "
+                + "SELECT ? || g, ? || g || '@example.com', 'password' FROM generate_series(1, ?) g",
+                prefix, prefix, CARTS);
+        jdbcTemplate.update("INSERT INTO carts (total_price, user_id) "
+                + "SELECT 2 * 10.0 + 1.0, user_id FROM users WHERE username LIKE ?", prefix + "%");
+        jdbcTemplate.update("INSERT INTO cart_items (cart_item_id, quantity, discount, product_price, cart_id, product_id) "
+                + "SELECT nextval('cart_items_seq'), 2, 0, 10.0, c.cart_id, ? FROM carts c "
+                + "JOIN users u ON u.user_id = c.user_id WHERE u.username LIKE ?",
+                repriced.getProductId(), prefix + "%");
+        jdbcTemplate.update("INSERT INTO cart_items (cart_item_id, quantity, discount, product_price, cart_id, product_id) "
+                + "SELECT nextval('cart_items_seq'), 1, 0, 1.0, c.cart_id, ? FROM carts c "
+                + "JOIN users u ON u.user_id = c.user_id WHERE u.username LIKE ?",
+                other.getProductId(), prefix + "%");
+    }
+
+    private static ProductDTO priceChange(Product product, double price) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductName(product.getProductName());
+        productDTO.setDescription(product.getDescription());
+        productDTO.setQuantity(product.getQuantity());
+        productDTO.setPrice(price);
+        productDTO.setDiscount(0);
+        productDTO.setSpecialPrice(price);
+        return productDTO;
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}